@@ -0,0 +1,50 @@
+package ru.practicum.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@code --key=value} command line options of the dataset generator and the load driver.
+ */
+public final class Arguments {
+    final Map<String, String> values = new HashMap<>();
+
+    public Arguments(String[] args) {
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --key=value but was " + arg);
+            }
+            int separator = arg.indexOf('=');
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+    }
+
+    private Arguments(Map<String, String> values) {
+        this.values.putAll(values);
+    }
+
+    /**
+     * Copy with one option replaced.
+     */
+    public Arguments with(String key, String value) {
+        Arguments arguments = new Arguments(values);
+        arguments.values.put(key, value);
+        return arguments;
+    }
+
+    public String get(String key, String defaultValue) {
+        return values.getOrDefault(key, defaultValue);
+    }
+
+    public int getInt(String key, int defaultValue) {
+        return values.containsKey(key) ? Integer.parseInt(values.get(key)) : defaultValue;
+    }
+
+    public long getLong(String key, long defaultValue) {
+        return values.containsKey(key) ? Long.parseLong(values.get(key)) : defaultValue;
+    }
+
+    public double getDouble(String key, double defaultValue) {
+        return values.containsKey(key) ? Double.parseDouble(values.get(key)) : defaultValue;
+    }
+}
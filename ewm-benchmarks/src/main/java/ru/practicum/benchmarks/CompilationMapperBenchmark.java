@@ -0,0 +1,41 @@
+package ru.practicum.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.ewmservice.dto.CompilationResponseDto;
+import ru.practicum.ewmservice.mapper.CompilationMapper;
+import ru.practicum.ewmservice.model.Compilation;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompilationMapperBenchmark {
+    @Param({"10", "100", "1000"})
+    int events;
+
+    Compilation compilation;
+
+    @Setup
+    public void setUp() {
+        compilation = Fixtures.compilation(events);
+    }
+
+    @Benchmark
+    public CompilationResponseDto toCompilationResponseDto() {
+        return CompilationMapper.toCompilationResponseDto(compilation);
+    }
+}
@@ -0,0 +1,42 @@
+package ru.practicum.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.ewmservice.dto.EventResponseDto;
+import ru.practicum.ewmservice.mapper.EventMapper;
+import ru.practicum.ewmservice.model.Event;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventMapperBenchmark {
+    Event event;
+
+    @Setup
+    public void setUp() {
+        event = Fixtures.event(42);
+    }
+
+    @Benchmark
+    public EventResponseDto toEventResponseDto() {
+        return EventMapper.toEventResponseDto(event);
+    }
+
+    @Benchmark
+    public EventResponseDto toEventResponseDtoWithViews() {
+        return EventMapper.toEventResponseDto(event, 128);
+    }
+}
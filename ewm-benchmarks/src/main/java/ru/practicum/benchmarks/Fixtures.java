@@ -0,0 +1,80 @@
+package ru.practicum.benchmarks;
+
+import ru.practicum.ewmservice.dto.EventResponseDto;
+import ru.practicum.ewmservice.mapper.EventMapper;
+import ru.practicum.ewmservice.model.Category;
+import ru.practicum.ewmservice.model.Compilation;
+import ru.practicum.ewmservice.model.Event;
+import ru.practicum.ewmservice.model.Location;
+import ru.practicum.ewmservice.model.State;
+import ru.practicum.ewmservice.model.User;
+import ru.practicum.statsdto.HitDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+final class Fixtures {
+    static final LocalDateTime NOW = LocalDateTime.of(2030, 1, 1, 10, 0, 0);
+
+    private Fixtures() {
+    }
+
+    static Event event(int id) {
+        return Event.builder()
+                .id(id)
+                .annotation("Annotation of the event number " + id + " with enough text to look real")
+                .description("Description of the event number " + id + ". ".repeat(20))
+                .category(Category.builder().id(id % 10 + 1).name("category " + (id % 10 + 1)).build())
+                .initiator(User.builder().id(id % 100 + 1).name("user " + (id % 100 + 1)).email("user@mail.ru").build())
+                .location(Location.builder().id(id).lat(55.75f).lon(37.61f).build())
+                .confirmedRequest(id % 7)
+                .participantLimit(100)
+                .created(NOW.minusDays(30))
+                .eventDate(NOW.plusHours(id))
+                .publishedOn(NOW.minusDays(1))
+                .paid(id % 2 == 0)
+                .requestModeration(true)
+                .waitlist(false)
+                .state(State.PUBLISHED)
+                .title("Event " + id)
+                .build();
+    }
+
+    static List<Event> events(int count) {
+        return IntStream.rangeClosed(1, count)
+                .mapToObj(Fixtures::event)
+                .collect(Collectors.toList());
+    }
+
+    static List<EventResponseDto> eventResponseDtos(int count) {
+        return events(count).stream()
+                .map(event -> EventMapper.toEventResponseDto(event, event.getId() * 3))
+                .collect(Collectors.toList());
+    }
+
+    static Compilation compilation(int events) {
+        return Compilation.builder()
+                .id(1)
+                .pinned(true)
+                .title("Compilation of " + events + " events")
+                .events(events(events))
+                .build();
+    }
+
+    static HitDto hitDto() {
+        return HitDto.builder()
+                .app("ewm-main-service")
+                .uri("/events/42")
+                .ip("192.163.0.1")
+                .timestamp("2030-01-01 10:00:00")
+                .build();
+    }
+
+    static List<String> uris(int count) {
+        return IntStream.rangeClosed(1, count)
+                .mapToObj(id -> "/events/" + id)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,54 @@
+package ru.practicum.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.statsclient.StatsClient;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatsClientUrlBenchmark {
+    @Param({"1", "10", "100"})
+    int uris;
+
+    StatsClient statsClient;
+    LocalDateTime start = Fixtures.NOW.minusDays(30);
+    LocalDateTime end = Fixtures.NOW;
+    List<String> uriList;
+
+    @Setup
+    public void setUp() {
+        statsClient = new StatsClient("http://localhost:9090", 16, 16, 1000, 200, 1000, 5000, false,
+                new ObjectMapper(), new SimpleMeterRegistry());
+        uriList = Fixtures.uris(uris);
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        statsClient.stop();
+    }
+
+    @Benchmark
+    public String statsUrl() {
+        return statsClient.statsUrl(start, end, uriList, true);
+    }
+}
@@ -0,0 +1,344 @@
+package ru.practicum.benchmarks.dataset;
+
+import ru.practicum.benchmarks.Arguments;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Bulk-loads a synthetic dataset into ewm_db and stats_db with COPY.
+ * <p>
+ * Schemas are created by the services on startup, so start them once before loading; a restart drops the data again.
+ * Ids are reserved from the table sequences, so the services may keep running and existing rows are kept.
+ * Confirmed request counters and hit rollups are maintained by the triggers of the schemas.
+ * <pre>
+ * java -cp ewm-benchmarks/target/benchmarks.jar ru.practicum.benchmarks.dataset.DatasetGenerator \
+ *     --events=200000 --requests=1000000 --hits=2000000
+ * </pre>
+ */
+public class DatasetGenerator {
+    static final String HITS_APP = "EwmServiceApplication";
+    static final String[] WORDS = {
+            "concert", "festival", "lecture", "exhibition", "meetup", "workshop", "premiere", "tour",
+            "jazz", "rock", "theatre", "cinema", "museum", "river", "park", "city", "night", "summer",
+            "winter", "open", "air", "music", "art", "science", "tech", "food", "wine", "books",
+            "family", "kids", "sport", "marathon", "yoga", "dance", "photo", "history", "street", "market"
+    };
+
+    final String ewmDbUrl;
+    final String statsDbUrl;
+    final String dbUser;
+    final String dbPassword;
+    final int users;
+    final int categories;
+    final int events;
+    final double publishedShare;
+    final int requests;
+    final int compilations;
+    final int compilationSize;
+    final int comments;
+    final long hits;
+    final int hitDays;
+    final int ips;
+    final Random random;
+    final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+    public DatasetGenerator(Arguments arguments) {
+        this.ewmDbUrl = arguments.get("ewm-db", "jdbc:postgresql://localhost:5432/ewm_db");
+        this.statsDbUrl = arguments.get("stats-db", "jdbc:postgresql://localhost:5432/stats_db");
+        this.dbUser = arguments.get("db-user", "postgres");
+        this.dbPassword = arguments.get("db-password", "root");
+        this.users = arguments.getInt("users", 10_000);
+        this.categories = arguments.getInt("categories", 50);
+        this.events = arguments.getInt("events", 200_000);
+        this.publishedShare = arguments.getDouble("published-share", 0.8);
+        this.requests = arguments.getInt("requests", 1_000_000);
+        this.compilations = arguments.getInt("compilations", 200);
+        this.compilationSize = arguments.getInt("compilation-size", 20);
+        this.comments = arguments.getInt("comments", 100_000);
+        this.hits = arguments.getLong("hits", 2_000_000);
+        this.hitDays = arguments.getInt("hit-days", 30);
+        this.ips = arguments.getInt("ips", 50_000);
+        this.random = new Random(arguments.getLong("seed", 42));
+    }
+
+    public static void main(String[] args) throws SQLException, IOException {
+        new DatasetGenerator(new Arguments(args)).run();
+    }
+
+    public void run() throws SQLException, IOException {
+        int[] publishedEventIds;
+        try (Connection connection = DriverManager.getConnection(ewmDbUrl, dbUser, dbPassword)) {
+            connection.setAutoCommit(false);
+            loadEwm(connection);
+            connection.commit();
+            connection.setAutoCommit(true);
+            analyze(connection, "users", "categories", "locations", "\"events\"", "participation_request",
+                    "compilations", "events_to_compilations", "comments");
+            publishedEventIds = findPublishedEventIds(connection);
+        }
+        try (Connection connection = DriverManager.getConnection(statsDbUrl, dbUser, dbPassword)) {
+            connection.setAutoCommit(false);
+            loadHits(connection, publishedEventIds);
+            connection.commit();
+            connection.setAutoCommit(true);
+            analyze(connection, "hits", "hits_minute", "hits_hour");
+        }
+    }
+
+    private void loadEwm(Connection connection) throws SQLException, IOException {
+        if (users == 0 || categories == 0) {
+            log("ewm_db skipped: users and categories are required");
+            return;
+        }
+        long started = System.nanoTime();
+        int userBase = (int) reserveIds(connection, "users_user_id_seq", users);
+        try (CopyWriter copy = new CopyWriter(connection, "users", "user_id, name, email")) {
+            for (int id = userBase + 1; id <= userBase + users; id++) {
+                copy.row(id, "user " + id, "user" + id + "@ewm.test");
+            }
+            logCopied("users", copy, started);
+        }
+
+        started = System.nanoTime();
+        int categoryBase = (int) reserveIds(connection, "categories_category_id_seq", categories);
+        try (CopyWriter copy = new CopyWriter(connection, "categories", "category_id, name")) {
+            for (int id = categoryBase + 1; id <= categoryBase + categories; id++) {
+                copy.row(id, "category " + id);
+            }
+            logCopied("categories", copy, started);
+        }
+
+        started = System.nanoTime();
+        int locationBase = (int) reserveIds(connection, "locations_location_id_seq", events);
+        try (CopyWriter copy = new CopyWriter(connection, "locations", "location_id, lat, lon")) {
+            for (int id = locationBase + 1; id <= locationBase + events; id++) {
+                copy.row(id, random.nextFloat() * 170 - 85, random.nextFloat() * 350 - 175);
+            }
+            logCopied("locations", copy, started);
+        }
+
+        started = System.nanoTime();
+        int eventBase = (int) reserveIds(connection, "events_event_id_seq", events);
+        int[] publishedIds = new int[events];
+        int[] publishedLimits = new int[events];
+        boolean[] publishedModerated = new boolean[events];
+        boolean[] publishedWaitlisted = new boolean[events];
+        int published = 0;
+        try (CopyWriter copy = new CopyWriter(connection, "\"events\"",
+                "event_id, category_id, created, description, annotation, event_date, initiator, location, paid, "
+                        + "participant_limit, published_on, request_moderation, state, title, waitlist")) {
+            for (int i = 1; i <= events; i++) {
+                int id = eventBase + i;
+                double stateRoll = random.nextDouble();
+                String state = stateRoll < publishedShare ? "PUBLISHED"
+                        : stateRoll < (1 + publishedShare) / 2 ? "PENDING" : "CANCELED";
+                LocalDateTime created = now.minusMinutes(random.nextInt(60 * 24 * 60));
+                int limit = 10 + random.nextInt(191);
+                boolean moderated = random.nextDouble() < 0.7;
+                boolean waitlisted = random.nextDouble() < 0.1;
+                copy.row(id,
+                        categoryBase + 1 + random.nextInt(categories),
+                        created,
+                        text(60 + random.nextInt(200)),
+                        text(8 + random.nextInt(30)),
+                        now.plusMinutes(60 * 3 + random.nextInt(60 * 24 * 180)),
+                        userBase + 1 + random.nextInt(users),
+                        locationBase + i,
+                        random.nextBoolean(),
+                        limit,
+                        "PUBLISHED".equals(state) ? created.plusMinutes(random.nextInt(60 * 24)) : null,
+                        moderated,
+                        state,
+                        text(2 + random.nextInt(6)),
+                        waitlisted);
+                if ("PUBLISHED".equals(state)) {
+                    publishedIds[published] = id;
+                    publishedLimits[published] = limit;
+                    publishedModerated[published] = moderated;
+                    publishedWaitlisted[published] = waitlisted;
+                    published++;
+                }
+            }
+            logCopied("events", copy, started);
+        }
+        if (published == 0) {
+            log("no published events, requests, compilations and comments skipped");
+            return;
+        }
+
+        started = System.nanoTime();
+        int requestCount = (int) Math.min(requests, (long) published * users);
+        int requestBase = (int) reserveIds(connection, "participation_request_participation_request_id_seq",
+                requestCount);
+        try (CopyWriter copy = new CopyWriter(connection, "participation_request",
+                "participation_request_id, created, event_id, requester, status")) {
+            for (int r = 0; r < requestCount; r++) {
+                int event = r % published;
+                int position = r / published;
+                int limit = publishedLimits[event];
+                String status;
+                if (position < limit) {
+                    status = random.nextDouble() < 0.05 ? "CANCELED"
+                            : publishedModerated[event] && position >= limit / 2 ? "PENDING" : "CONFIRMED";
+                } else {
+                    status = publishedWaitlisted[event] ? "WAITING" : "REJECTED";
+                }
+                copy.row(requestBase + 1 + r,
+                        now.minusMinutes(random.nextInt(60 * 24 * 30)),
+                        publishedIds[event],
+                        userBase + 1 + distinctUser(event, position, 7919),
+                        status);
+            }
+            logCopied("participation_request", copy, started);
+        }
+
+        started = System.nanoTime();
+        int perCompilation = Math.min(compilationSize, published);
+        int compilationBase = (int) reserveIds(connection, "compilations_compilation_id_seq", compilations);
+        int[] compilationStarts = new int[compilations];
+        try (CopyWriter copy = new CopyWriter(connection, "compilations", "compilation_id, pinned, title")) {
+            for (int i = 1; i <= compilations; i++) {
+                compilationStarts[i - 1] = random.nextInt(published);
+                copy.row(compilationBase + i, random.nextDouble() < 0.1, text(2 + random.nextInt(4)));
+            }
+            logCopied("compilations", copy, started);
+        }
+        started = System.nanoTime();
+        int linkBase = (int) reserveIds(connection, "events_to_compilations_id_seq",
+                (long) compilations * perCompilation);
+        try (CopyWriter copy = new CopyWriter(connection, "events_to_compilations",
+                "id, event_id, compilation_id")) {
+            int link = 0;
+            for (int i = 0; i < compilations; i++) {
+                for (int j = 0; j < perCompilation; j++) {
+                    copy.row(linkBase + ++link,
+                            publishedIds[(compilationStarts[i] + j) % published],
+                            compilationBase + 1 + i);
+                }
+            }
+            logCopied("events_to_compilations", copy, started);
+        }
+
+        started = System.nanoTime();
+        int commentCount = (int) Math.min(comments, (long) published * users);
+        int commentBase = (int) reserveIds(connection, "comments_comment_id_seq", commentCount);
+        try (CopyWriter copy = new CopyWriter(connection, "comments",
+                "comment_id, user_id, event_id, content, published_on, is_edited, is_approved")) {
+            for (int c = 0; c < commentCount; c++) {
+                int event = c % published;
+                copy.row(commentBase + 1 + c,
+                        userBase + 1 + distinctUser(event, c / published, 104729),
+                        publishedIds[event],
+                        text(5 + random.nextInt(40)),
+                        now.minusMinutes(random.nextInt(60 * 24 * 30)),
+                        random.nextDouble() < 0.1,
+                        random.nextDouble() < 0.8);
+            }
+            logCopied("comments", copy, started);
+        }
+    }
+
+    private void loadHits(Connection connection, int[] publishedEventIds) throws SQLException, IOException {
+        if (hits == 0) {
+            return;
+        }
+        long started = System.nanoTime();
+        long hitBase = reserveIds(connection, "hits_id_seq", hits);
+        long windowSeconds = hitDays * 24L * 60 * 60;
+        try (CopyWriter copy = new CopyWriter(connection, "hits", "id, app, uri, ip, req_time")) {
+            for (long h = 1; h <= hits; h++) {
+                String uri = publishedEventIds.length == 0 || random.nextDouble() < 0.1 ? "/events"
+                        : "/events/" + publishedEventIds[popular(publishedEventIds.length)];
+                int ip = random.nextInt(ips);
+                copy.row(hitBase + h,
+                        HITS_APP,
+                        uri,
+                        "10." + (ip >>> 16 & 0xff) + "." + (ip >>> 8 & 0xff) + "." + (ip & 0xff),
+                        now.minusSeconds((long) (random.nextDouble() * windowSeconds)));
+            }
+            logCopied("hits", copy, started);
+        }
+    }
+
+    /**
+     * Requester of the given position in the request list of an event; distinct for positions below {@code users}.
+     */
+    private int distinctUser(int event, int position, int stride) {
+        return (int) (((long) event * stride + position) % users);
+    }
+
+    /**
+     * Index skewed towards the head of the range, so a few events get most of the views.
+     */
+    private int popular(int size) {
+        double roll = random.nextDouble();
+        return (int) (size * roll * roll * roll);
+    }
+
+    private String text(int words) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+
+    /**
+     * Takes ids {@code base + 1 .. base + count} out of the sequence; rows already pooled by a running service stay below.
+     */
+    private long reserveIds(Connection connection, String sequence, long count) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            long base;
+            try (ResultSet resultSet = statement.executeQuery("SELECT nextval('" + sequence + "')")) {
+                resultSet.next();
+                base = resultSet.getLong(1);
+            }
+            statement.execute("SELECT setval('" + sequence + "', " + (base + Math.max(count, 1)) + ")");
+            return base;
+        }
+    }
+
+    private int[] findPublishedEventIds(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(
+                     "SELECT event_id FROM \"events\" WHERE state = 'PUBLISHED' ORDER BY event_id")) {
+            int[] ids = new int[1024];
+            int size = 0;
+            while (resultSet.next()) {
+                if (size == ids.length) {
+                    ids = Arrays.copyOf(ids, size * 2);
+                }
+                ids[size++] = resultSet.getInt(1);
+            }
+            return Arrays.copyOf(ids, size);
+        }
+    }
+
+    private void analyze(Connection connection, String... tables) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE " + String.join(", ", tables));
+        }
+    }
+
+    private void logCopied(String table, CopyWriter copy, long startedNanos) throws IOException {
+        copy.close();
+        log(String.format("%-24s %,12d rows %8d ms", table, copy.getRows(),
+                (System.nanoTime() - startedNanos) / 1_000_000));
+    }
+
+    private void log(String message) {
+        System.out.println(message);
+    }
+}
@@ -0,0 +1,82 @@
+package ru.practicum.benchmarks.load;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latencies and response classes per operation; one per worker, merged once the run is over.
+ */
+final class LatencyRecorder {
+    static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+    final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+
+    void record(Operation operation, long latencyNanos, int status) {
+        OperationStats operationStats = stats.computeIfAbsent(operation, o -> new OperationStats());
+        operationStats.latencies.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos),
+                HIGHEST_TRACKABLE_MICROS));
+        if (status < 0) {
+            operationStats.failed++;
+        } else if (status >= 500) {
+            operationStats.serverErrors++;
+        } else if (status >= 400) {
+            operationStats.clientErrors++;
+        }
+    }
+
+    void add(LatencyRecorder other) {
+        other.stats.forEach((operation, otherStats) -> {
+            OperationStats operationStats = stats.computeIfAbsent(operation, o -> new OperationStats());
+            operationStats.latencies.add(otherStats.latencies);
+            operationStats.clientErrors += otherStats.clientErrors;
+            operationStats.serverErrors += otherStats.serverErrors;
+            operationStats.failed += otherStats.failed;
+        });
+    }
+
+    void print(PrintStream out, double seconds) {
+        String format = "%-24s %10s %10s %7s %7s %7s %10s %10s %10s %10s %10s%n";
+        out.printf(format, "operation", "requests", "req/s", "4xx", "5xx", "failed",
+                "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        stats.forEach((operation, operationStats) -> printRow(out, operation.getName(), operationStats, seconds));
+        printRow(out, "total", total(), seconds);
+    }
+
+    OperationStats total() {
+        OperationStats total = new OperationStats();
+        stats.values().forEach(operationStats -> {
+            total.latencies.add(operationStats.latencies);
+            total.clientErrors += operationStats.clientErrors;
+            total.serverErrors += operationStats.serverErrors;
+            total.failed += operationStats.failed;
+        });
+        return total;
+    }
+
+    private void printRow(PrintStream out, String name, OperationStats operationStats, double seconds) {
+        Histogram latencies = operationStats.latencies;
+        out.printf("%-24s %10d %10.1f %7d %7d %7d %10.2f %10.2f %10.2f %10.2f %10.2f%n",
+                name,
+                latencies.getTotalCount(),
+                latencies.getTotalCount() / seconds,
+                operationStats.clientErrors,
+                operationStats.serverErrors,
+                operationStats.failed,
+                latencies.getValueAtPercentile(50) / 1000.0,
+                latencies.getValueAtPercentile(90) / 1000.0,
+                latencies.getValueAtPercentile(99) / 1000.0,
+                latencies.getValueAtPercentile(99.9) / 1000.0,
+                latencies.getMaxValue() / 1000.0);
+    }
+
+    static final class OperationStats {
+        final Histogram latencies = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+        long clientErrors;
+        long serverErrors;
+        long failed;
+    }
+}
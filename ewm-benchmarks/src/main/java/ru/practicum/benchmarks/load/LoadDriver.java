@@ -0,0 +1,142 @@
+package ru.practicum.benchmarks.load;
+
+import ru.practicum.benchmarks.Arguments;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays a weighted mix of public, private, admin and stats endpoints against locally started services
+ * and prints throughput and latency percentiles per operation.
+ * <p>
+ * Workers send requests back to back unless {@code --rate} sets a total request rate; latencies are then
+ * measured from the scheduled start, so a stalled service is not hidden by the workers waiting on it.
+ * <pre>
+ * java -cp ewm-benchmarks/target/benchmarks.jar ru.practicum.benchmarks.load.LoadDriver \
+ *     --threads=32 --duration-s=120 --mix=public-events:60,public-event:30,stats-hit:10
+ * </pre>
+ */
+public class LoadDriver {
+    final String ewmUrl;
+    final String statsUrl;
+    final int threads;
+    final long warmupNanos;
+    final long durationNanos;
+    final double rate;
+    final Duration timeout;
+    final int sampleSize;
+    final String mix;
+    final long seed;
+    final HttpClient client;
+
+    public LoadDriver(Arguments arguments) {
+        this.ewmUrl = arguments.get("ewm-url", "http://localhost:8080");
+        this.statsUrl = arguments.get("stats-url", "http://localhost:9090");
+        this.threads = arguments.getInt("threads", 16);
+        this.warmupNanos = TimeUnit.SECONDS.toNanos(arguments.getLong("warmup-s", 10));
+        this.durationNanos = TimeUnit.SECONDS.toNanos(arguments.getLong("duration-s", 60));
+        this.rate = arguments.getDouble("rate", 0);
+        this.timeout = Duration.ofMillis(arguments.getLong("timeout-ms", 10_000));
+        this.sampleSize = arguments.getInt("sample-size", 5_000);
+        this.mix = arguments.get("mix", OperationMix.DEFAULT_MIX);
+        this.seed = arguments.getLong("seed", 42);
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .build();
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException, ExecutionException {
+        new LoadDriver(new Arguments(args)).run();
+    }
+
+    public void run() throws IOException, InterruptedException, ExecutionException {
+        Targets targets = discover();
+        LatencyRecorder total = measure(targets);
+        System.out.printf("%d threads, %s, %.0f s measured after %.0f s warmup%n", threads,
+                rate > 0 ? String.format("%.0f req/s scheduled", rate) : "unthrottled",
+                durationNanos / 1e9, warmupNanos / 1e9);
+        total.print(System.out, getMeasuredSeconds());
+    }
+
+    Targets discover() throws IOException, InterruptedException {
+        Targets targets = Targets.discover(client, ewmUrl, statsUrl, sampleSize);
+        System.out.printf("sampled %d events, %d users, %d categories, %d compilations%n",
+                targets.eventIds.length, targets.userIds.length, targets.categoryIds.length,
+                targets.compilationIds.length);
+        return targets;
+    }
+
+    LatencyRecorder measure(Targets targets) throws InterruptedException, ExecutionException {
+        OperationMix operationMix = OperationMix.parse(mix, targets);
+        long measureFrom = System.nanoTime() + warmupNanos;
+        long measureTo = measureFrom + durationNanos;
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        List<Future<LatencyRecorder>> results = new ArrayList<>();
+        for (int worker = 0; worker < threads; worker++) {
+            Random random = new Random(seed + worker);
+            results.add(workers.submit(() -> work(targets, operationMix, random, measureFrom, measureTo)));
+        }
+        LatencyRecorder total = new LatencyRecorder();
+        for (Future<LatencyRecorder> result : results) {
+            total.add(result.get());
+        }
+        workers.shutdown();
+        return total;
+    }
+
+    double getMeasuredSeconds() {
+        return durationNanos / 1e9;
+    }
+
+    private LatencyRecorder work(Targets targets,
+                                 OperationMix operationMix,
+                                 Random random,
+                                 long measureFrom,
+                                 long measureTo) {
+        LatencyRecorder recorder = new LatencyRecorder();
+        long intervalNanos = rate > 0 ? (long) (threads * 1e9 / rate) : 0;
+        long scheduled = System.nanoTime() + (intervalNanos > 0 ? random.nextInt((int) Math.min(intervalNanos,
+                Integer.MAX_VALUE)) : 0);
+        while (!Thread.currentThread().isInterrupted()) {
+            long started;
+            if (intervalNanos > 0) {
+                LockSupport.parkNanos(scheduled - System.nanoTime());
+                started = scheduled;
+                scheduled += intervalNanos;
+            } else {
+                started = System.nanoTime();
+            }
+            if (started >= measureTo) {
+                break;
+            }
+            Operation operation = operationMix.next(random);
+            HttpRequest request = operation.request(targets, random).timeout(timeout).build();
+            int status;
+            try {
+                status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            } catch (IOException e) {
+                status = -1;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (started >= measureFrom) {
+                recorder.record(operation, System.nanoTime() - started, status);
+            }
+        }
+        return recorder;
+    }
+}
@@ -0,0 +1,213 @@
+package ru.practicum.benchmarks.load;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static ru.practicum.benchmarks.load.Targets.pick;
+
+/**
+ * Endpoints the load driver can call, named as they are referenced in {@code --mix}.
+ */
+enum Operation {
+    PUBLIC_EVENTS("public-events") {
+        @Override
+        HttpRequest.Builder request(Targets targets, Random random) {
+            StringBuilder url = new StringBuilder(targets.ewmUrl).append("/events?from=0&size=10");
+            switch (random.nextInt(4)) {
+                case 0:
+                    url.append("&categories=").append(pick(targets.categoryIds, random));
+                    break;
+                case 1:
+                    url.append("&sort=VIEWS");
+                    break;
+                case 2:
+                    url.append("&onlyAvailable=true&paid=").append(random.nextBoolean());
+                    break;
+                default:
+                    url.append("&text=").append(SEARCH_WORDS[random.nextInt(SEARCH_WORDS.length)]);
+            }
+            return get(url.toString());
+        }
+
+        @Override
+        boolean isAvailable(Targets targets) {
+            return targets.categoryIds.length > 0;
+        }
+    },
+    PUBLIC_EVENT("public-event") {
+        @Override
+        HttpRequest.Builder request(Targets targets, Random random) {
+            return get(targets.ewmUrl + "/events/" + pick(targets.eventIds, random));
+        }
+
+        @Override
+        boolean isAvailable(Targets targets) {
+            return targets.eventIds.length > 0;
+        }
+    },
+    PUBLIC_COMPILATIONS("public-compilations") {
+        @Override
+        HttpRequest.Builder request(Targets targets, Random random) {
+            return get(targets.ewmUrl + "/compilations?from=0&size=10" + (random.nextBoolean() ? "&pinned=true" : ""));
+        }
+    },
+    PUBLIC_COMPILATION("public-compilation") {
+        @Override
+        HttpRequest.Builder request(Targets targets, Random random) {
+            return get(targets.ewmUrl + "/compilations/" + pick(targets.compilationIds, random));
+        }
+
+        @Override
+        boolean isAvailable(Targets targets) {
+            return targets.compilationIds.length > 0;
+        }
+    },
+    PUBLIC_CATEGORIES("public-categories") {
+        @Override
+        HttpRequest.Builder request(Targets targets, Random random) {
+            return get(targets.ewmUrl + "/categories?from=0&size=10");
+        }
+    },
+    PUBLIC_COMMENTS("public-comments") {
+        @Override
+        HttpRequest.Builder request(Targets targets, Random random) {
+            return get(targets.ewmUrl + "/public/comments/" + pick(targets.eventIds, random) + "?from=0&size=10");
+        }
+
+        @Override
+        boolean isAvailable(Targets targets) {
+            return targets.eventIds.length > 0;
+        }
+    },
+    PRIVATE_EVENTS("private-events") {
+        @Override
+        HttpRequest.Builder request(Targets targets, Random random) {
+            return get(targets.ewmUrl + "/users/" + pick(targets.userIds, random) + "/events?from=0&size=10");
+        }
+
+        @Override
+        boolean isAvailable(Targets targets) {
+            return targets.userIds.length > 0;
+        }
+    },
+    PRIVATE_REQUESTS("private-requests") {
+        @Override
+        HttpRequest.Builder request(Targets targets, Random random) {
+            return get(targets.ewmUrl + "/users/" + pick(targets.userIds, random) + "/requests");
+        }
+
+        @Override
+        boolean isAvailable(Targets targets) {
+            return targets.userIds.length > 0;
+        }
+    },
+    PRIVATE_CREATE_REQUEST("private-create-request") {
+        @Override
+        HttpRequest.Builder request(Targets targets, Random random) {
+            return HttpRequest.newBuilder(URI.create(targets.ewmUrl + "/users/" + pick(targets.userIds, random)
+                            + "/requests?eventId=" + pick(targets.eventIds, random)))
+                    .POST(HttpRequest.BodyPublishers.noBody());
+        }
+
+        @Override
+        boolean isAvailable(Targets targets) {
+            return targets.userIds.length > 0 && targets.eventIds.length > 0;
+        }
+    },
+    ADMIN_EVENTS("admin-events") {
+        @Override
+        HttpRequest.Builder request(Targets targets, Random random) {
+            return get(targets.ewmUrl + "/admin/events?states=PUBLISHED&categories="
+                    + pick(targets.categoryIds, random) + "&from=0&size=10");
+        }
+
+        @Override
+        boolean isAvailable(Targets targets) {
+            return targets.categoryIds.length > 0;
+        }
+    },
+    ADMIN_USERS("admin-users") {
+        @Override
+        HttpRequest.Builder request(Targets targets, Random random) {
+            return get(targets.ewmUrl + "/admin/users?after=" + pick(targets.userIds, random) + "&size=10");
+        }
+
+        @Override
+        boolean isAvailable(Targets targets) {
+            return targets.userIds.length > 0;
+        }
+    },
+    STATS_QUERY("stats-query") {
+        @Override
+        HttpRequest.Builder request(Targets targets, Random random) {
+            LocalDateTime end = LocalDateTime.now();
+            String uris = IntStream.range(0, 5)
+                    .mapToObj(i -> "/events/" + pick(targets.eventIds, random))
+                    .collect(Collectors.joining(","));
+            return get(targets.statsUrl + "/stats?start=" + encode(end.minusDays(7).format(DATE_TIME_FORMATTER))
+                    + "&end=" + encode(end.format(DATE_TIME_FORMATTER))
+                    + "&uris=" + uris
+                    + "&unique=" + random.nextBoolean());
+        }
+
+        @Override
+        boolean isAvailable(Targets targets) {
+            return targets.eventIds.length > 0;
+        }
+    },
+    STATS_HIT("stats-hit") {
+        @Override
+        HttpRequest.Builder request(Targets targets, Random random) {
+            String uri = targets.eventIds.length == 0 ? "/events" : "/events/" + pick(targets.eventIds, random);
+            String body = "{\"app\":\"EwmServiceApplication\",\"uri\":\"" + uri + "\",\"ip\":\"10.1."
+                    + random.nextInt(256) + "." + random.nextInt(256) + "\",\"timestamp\":\""
+                    + LocalDateTime.now().format(DATE_TIME_FORMATTER) + "\"}";
+            return HttpRequest.newBuilder(URI.create(targets.statsUrl + "/hit"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body));
+        }
+    };
+
+    static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    static final String[] SEARCH_WORDS = {"concert", "jazz", "festival", "museum", "yoga", "market"};
+
+    final String name;
+
+    Operation(String name) {
+        this.name = name;
+    }
+
+    static Operation byName(String name) {
+        for (Operation operation : values()) {
+            if (operation.name.equals(name)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation " + name);
+    }
+
+    abstract HttpRequest.Builder request(Targets targets, Random random);
+
+    boolean isAvailable(Targets targets) {
+        return true;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    private static HttpRequest.Builder get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).GET();
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,65 @@
+package ru.practicum.benchmarks.load;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Weighted choice of operations, parsed from {@code name:weight,name:weight}.
+ */
+final class OperationMix {
+    static final String DEFAULT_MIX = "public-events:25,public-event:25,public-compilations:5,public-compilation:5,"
+            + "public-categories:5,public-comments:5,private-events:5,private-requests:5,private-create-request:5,"
+            + "admin-events:5,admin-users:2,stats-query:5,stats-hit:3";
+
+    final Operation[] operations;
+    final int[] cumulativeWeights;
+
+    OperationMix(Map<Operation, Integer> weights) {
+        List<Operation> operationList = new ArrayList<>(weights.keySet());
+        this.operations = operationList.toArray(new Operation[0]);
+        this.cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += weights.get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("Operation mix is empty");
+        }
+    }
+
+    static OperationMix parse(String mix, Targets targets) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] nameAndWeight = entry.trim().split(":");
+            Operation operation = Operation.byName(nameAndWeight[0]);
+            int weight = nameAndWeight.length > 1 ? Integer.parseInt(nameAndWeight[1]) : 1;
+            if (weight <= 0) {
+                continue;
+            }
+            if (!operation.isAvailable(targets)) {
+                System.out.println(operation.getName() + " skipped: no ids to call it with");
+                continue;
+            }
+            weights.put(operation, weight);
+        }
+        return new OperationMix(weights);
+    }
+
+    Operation next(Random random) {
+        int roll = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (roll < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    Operation[] getOperations() {
+        return operations;
+    }
+}
@@ -0,0 +1,85 @@
+package ru.practicum.benchmarks.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Base urls of the services and a sample of existing ids that operations pick from.
+ */
+final class Targets {
+    static final int PAGE_SIZE = 1000;
+
+    final String ewmUrl;
+    final String statsUrl;
+    final int[] eventIds;
+    final int[] userIds;
+    final int[] categoryIds;
+    final int[] compilationIds;
+
+    Targets(String ewmUrl, String statsUrl, int[] eventIds, int[] userIds, int[] categoryIds, int[] compilationIds) {
+        this.ewmUrl = ewmUrl;
+        this.statsUrl = statsUrl;
+        this.eventIds = eventIds;
+        this.userIds = userIds;
+        this.categoryIds = categoryIds;
+        this.compilationIds = compilationIds;
+    }
+
+    /**
+     * Samples ids through the admin and public endpoints, so the driver needs nothing but the services.
+     */
+    static Targets discover(HttpClient client, String ewmUrl, String statsUrl, int sampleSize)
+            throws IOException, InterruptedException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        return new Targets(ewmUrl, statsUrl,
+                collectIds(client, objectMapper, ewmUrl + "/admin/events?states=PUBLISHED", sampleSize, true),
+                collectIds(client, objectMapper, ewmUrl + "/admin/users?", sampleSize, true),
+                collectIds(client, objectMapper, ewmUrl + "/categories?from=0", PAGE_SIZE, false),
+                collectIds(client, objectMapper, ewmUrl + "/compilations?from=0", PAGE_SIZE, false));
+    }
+
+    static int pick(int[] ids, Random random) {
+        return ids[random.nextInt(ids.length)];
+    }
+
+    private static int[] collectIds(HttpClient client,
+                                    ObjectMapper objectMapper,
+                                    String url,
+                                    int limit,
+                                    boolean keyset) throws IOException, InterruptedException {
+        int[] ids = new int[0];
+        int after = 0;
+        while (ids.length < limit) {
+            String pageUrl = url + "&size=" + Math.min(PAGE_SIZE, limit - ids.length)
+                    + (keyset ? "&after=" + after : "");
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(pageUrl)).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IOException("GET " + pageUrl + " returned " + response.statusCode());
+            }
+            JsonNode page = objectMapper.readTree(response.body());
+            if (page.isEmpty()) {
+                break;
+            }
+            int[] pageIds = new int[page.size()];
+            for (int i = 0; i < pageIds.length; i++) {
+                pageIds[i] = page.get(i).get("id").asInt();
+            }
+            ids = Arrays.copyOf(ids, ids.length + pageIds.length);
+            System.arraycopy(pageIds, 0, ids, ids.length - pageIds.length, pageIds.length);
+            if (!keyset) {
+                break;
+            }
+            after = pageIds[pageIds.length - 1];
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,69 @@
+package ru.practicum.benchmarks.load;
+
+import ru.practicum.benchmarks.Arguments;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Runs the same operation mix at growing concurrency against an ewm-service on platform threads and one started
+ * with the {@code virtual-threads} profile, then prints throughput and latency of both side by side.
+ * Both instances share the databases and stats-server, so they should be measured one after another, as here.
+ * <pre>
+ * java -cp ewm-benchmarks/target/benchmarks.jar ru.practicum.benchmarks.load.ThreadModeComparison \
+ *     --platform-url=http://localhost:8080 --virtual-url=http://localhost:8081 --threads=50,200,800
+ * </pre>
+ * All other options are passed to {@link LoadDriver}.
+ */
+public class ThreadModeComparison {
+    final Arguments arguments;
+    final String[] modes;
+    final String[] urls;
+    final int[] threadSteps;
+
+    public ThreadModeComparison(Arguments arguments) {
+        this.arguments = arguments;
+        this.modes = new String[]{"platform", "virtual"};
+        this.urls = new String[]{
+                arguments.get("platform-url", "http://localhost:8080"),
+                arguments.get("virtual-url", "http://localhost:8081")
+        };
+        String[] steps = arguments.get("threads", "50,200,800").split(",");
+        this.threadSteps = new int[steps.length];
+        for (int i = 0; i < steps.length; i++) {
+            threadSteps[i] = Integer.parseInt(steps[i].trim());
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException, ExecutionException {
+        new ThreadModeComparison(new Arguments(args)).run();
+    }
+
+    public void run() throws IOException, InterruptedException, ExecutionException {
+        List<String> rows = new ArrayList<>();
+        for (int threads : threadSteps) {
+            for (int mode = 0; mode < modes.length; mode++) {
+                LoadDriver driver = new LoadDriver(arguments
+                        .with("ewm-url", urls[mode])
+                        .with("threads", String.valueOf(threads)));
+                System.out.printf("%s threads on %s: %d client threads%n", modes[mode], urls[mode], threads);
+                LatencyRecorder.OperationStats total = driver.measure(driver.discover()).total();
+                double seconds = driver.getMeasuredSeconds();
+                rows.add(String.format("%-10s %8d %10.1f %7d %7d %10.2f %10.2f %10.2f",
+                        modes[mode],
+                        threads,
+                        total.latencies.getTotalCount() / seconds,
+                        total.serverErrors,
+                        total.failed,
+                        total.latencies.getValueAtPercentile(50) / 1000.0,
+                        total.latencies.getValueAtPercentile(99) / 1000.0,
+                        total.latencies.getMaxValue() / 1000.0));
+            }
+        }
+        System.out.printf("%-10s %8s %10s %7s %7s %10s %10s %10s%n",
+                "mode", "threads", "req/s", "5xx", "failed", "p50 ms", "p99 ms", "max ms");
+        rows.forEach(System.out::println);
+    }
+}
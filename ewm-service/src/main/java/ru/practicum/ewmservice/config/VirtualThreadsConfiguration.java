@@ -0,0 +1,31 @@
+package ru.practicum.ewmservice.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.task.TaskSchedulerCustomizer;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.practicum.statsclient.VirtualThreads;
+
+/**
+ * Runs Tomcat request handling and scheduled jobs on virtual threads.
+ * Enabled by the {@code virtual-threads} profile, which also sizes the connection pool; needs a Java 21 runtime.
+ */
+@Configuration
+@ConditionalOnProperty(name = "virtual-threads.enabled", havingValue = "true")
+@Slf4j
+public class VirtualThreadsConfiguration {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadsProtocolHandlerCustomizer() {
+        log.info("Tomcat requests are handled on virtual threads");
+        return protocolHandler -> protocolHandler.setExecutor(VirtualThreads.newThreadPerTaskExecutor("http-"));
+    }
+
+    @Bean
+    public TaskSchedulerCustomizer virtualThreadsTaskSchedulerCustomizer() {
+        return taskScheduler -> taskScheduler.setThreadFactory(VirtualThreads.factory("scheduling-"));
+    }
+}
@@ -93,12 +93,13 @@ public class CommentController {
     @GetMapping("/users/{userId}/comments")
     @ResponseStatus(HttpStatus.OK)
     public List<CommentResponseDto> getAllByUserId(@PathVariable int userId,
+                                                   @RequestParam(required = false) @Min(0) Integer after,
                                                    @RequestParam(defaultValue = "0", required = false) @Min(0) int from,
                                                    @RequestParam(defaultValue = "10", required = false) @Min(1) int size) {
         log.info("PRIVATE GET ALL");
         log.info("Request for get Comments: userId = {}; from = {}, size = {}", userId, from, size);
 
-        return commentService.getAllByUserId(userId, from, size).stream()
+        return commentService.getAllByUserId(userId, after, from, size).stream()
                 .map(CommentMapper::toCommentResponseDto)
                 .collect(Collectors.toList());
     }
@@ -112,6 +113,7 @@ public class CommentController {
                                            @RequestParam(required = false) boolean isApproved,
                                            @RequestParam(required = false) String rangeStart,
                                            @RequestParam(required = false) String rangeEnd,
+                                           @RequestParam(required = false) @Min(0) Integer after,
                                            @RequestParam(defaultValue = "0", required = false) @Min(0) int from,
                                            @RequestParam(defaultValue = "10", required = false) @Min(1) int size) {
         log.info("ADMIN GET ALL");
@@ -137,6 +139,7 @@ public class CommentController {
                 isApproved,
                 commentCreatedStart,
                 commentCreatedEnd,
+                after,
                 from,
                 size).stream()
                 .map(CommentMapper::toCommentResponseDto)
@@ -159,12 +162,13 @@ public class CommentController {
     @GetMapping("/public/comments/{eventId}")
     @ResponseStatus(HttpStatus.OK)
     public List<CommentResponseDto> getAll(@PathVariable int eventId,
+                                          @RequestParam(required = false) @Min(0) Integer after,
                                           @RequestParam(defaultValue = "0", required = false) @Min(0) int from,
                                           @RequestParam(defaultValue = "10", required = false) @Min(1) int size) {
         log.info("COMMON GET ALL");
         log.info("Request for get Comments for event {}", eventId);
 
-        return commentService.getAllByEventId(eventId, from, size)
+        return commentService.getAllByEventId(eventId, after, from, size)
                 .stream()
                 .map(CommentMapper::toCommentResponseDto)
                 .collect(Collectors.toList());
@@ -5,6 +5,8 @@ import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.ewmservice.dto.CompilationRequestDto;
@@ -12,6 +14,7 @@ import ru.practicum.ewmservice.dto.CompilationResponseDto;
 import ru.practicum.ewmservice.mapper.CompilationMapper;
 import ru.practicum.ewmservice.model.Compilation;
 import ru.practicum.ewmservice.model.Event;
+import ru.practicum.ewmservice.service.CompilationResponseCache;
 import ru.practicum.ewmservice.service.CompilationService;
 import ru.practicum.ewmservice.service.EventService;
 
@@ -31,6 +34,7 @@ import static ru.practicum.ewmservice.mapper.CompilationMapper.toCompilationResp
 public class CompilationController {
     final CompilationService compilationService;
     final EventService eventService;
+    final CompilationResponseCache compilationResponseCache;
 
 //Admin path start
     @PostMapping("/admin/compilations")
@@ -82,21 +86,29 @@ public class CompilationController {
 
 //Public path start
     @GetMapping("/compilations")
-    @ResponseStatus(HttpStatus.OK)
-    public List<CompilationResponseDto> getAll(
+    public ResponseEntity<byte[]> getAll(
             @RequestParam(required = false) Boolean pinned,
             @RequestParam(defaultValue = "0", required = false) @Min(0) int from,
             @RequestParam(defaultValue = "10", required = false) @Min(1) int size
     ) {
-        return compilationService.getAll(pinned, from, size).stream()
-                .map(CompilationMapper::toCompilationResponseDto)
-                .collect(Collectors.toList());
+        byte[] body = compilationResponseCache.getAll(pinned, from, size, () ->
+                compilationService.getAll(pinned, from, size).stream()
+                        .map(CompilationMapper::toCompilationResponseDto)
+                        .collect(Collectors.toList()));
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
     }
 
     @GetMapping("/compilations/{compId}")
-    @ResponseStatus(HttpStatus.OK)
-    public CompilationResponseDto getById(@PathVariable int compId) {
-        return toCompilationResponseDto(compilationService.getById(compId));
+    public ResponseEntity<byte[]> getById(@PathVariable int compId) {
+        byte[] body = compilationResponseCache.getById(compId, () ->
+                toCompilationResponseDto(compilationService.getById(compId)));
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
     }
 //Public path end
 }
@@ -18,12 +18,12 @@ import ru.practicum.ewmservice.mapper.LocationMapper;
 import ru.practicum.ewmservice.model.*;
 import ru.practicum.ewmservice.service.CategoryService;
 import ru.practicum.ewmservice.service.EventService;
+import ru.practicum.ewmservice.service.EventViewsService;
 import ru.practicum.ewmservice.service.LocationService;
 import ru.practicum.ewmservice.service.UserService;
 import ru.practicum.ewmservice.util.DateTimeUtils;
-import ru.practicum.statsclient.StatsClient;
+import ru.practicum.ewmservice.util.EventDateCursor;
 import ru.practicum.statsdto.HitDto;
-import ru.practicum.statsdto.Stat;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.validation.ValidationException;
@@ -42,20 +42,19 @@ public class EventController {
             = Set.of(UpdateEventStateAction.SEND_TO_REVIEW, UpdateEventStateAction.CANCEL_REVIEW);
     static final Set<UpdateEventStateAction> ADMIN_ALLOWED_UPDATE_EVENT_STATE_ACTIONS
             = Set.of(UpdateEventStateAction.PUBLISH_EVENT, UpdateEventStateAction.REJECT_EVENT);
-    static final Set<String> SORTED_TYPE = Set.of("EVENT_DATE", "VIEWS");
+    static final Set<String> SORTED_TYPE = Set.of("EVENT_DATE", "VIEWS", "RELEVANCE");
 
     final EventService eventService;
     final UserService userService;
     final CategoryService categoryService;
     final LocationService locationService;
-    final StatsClient statsClient;
+    final EventViewsService eventViewsService;
 
 //private path start
     @PostMapping("/users/{userId}/events")
     @ResponseStatus(HttpStatus.CREATED)
     public EventResponseDto add(@Validated @RequestBody EventRequestDto eventRequestDto,
                                 @PathVariable int userId) {
-        log.info("PRIVATE POST");
         log.info("Request from user id={} to add event:{}", userId, eventRequestDto);
         User initiator = userService.findById(userId);
 
@@ -77,12 +76,12 @@ public class EventController {
     @ResponseStatus(HttpStatus.OK)
     public List<EventResponseDto> get(
             @PathVariable int userId,
+            @RequestParam(required = false) @Min(0) Integer after,
             @RequestParam(defaultValue = "0", required = false) @Min(0) int from,
             @RequestParam(defaultValue = "10", required = false) @Min(1) int size) {
-        log.info("PRIVATE GET");
         log.info("Request from user id = {} to get events", userId);
 
-        return eventService.getAllByUserId(userId, from, size).stream()
+        return eventService.getAllByUserId(userId, after, from, size).stream()
                 .map(EventMapper::toEventResponseDto)
                 .collect(Collectors.toList());
     }
@@ -91,7 +90,6 @@ public class EventController {
     @ResponseStatus(HttpStatus.OK)
     public EventResponseDto get(@PathVariable int userId,
                                 @PathVariable int eventId) {
-        log.info("PRIVATE GET");
         log.info("Request from user id = {} to get event id = {}", userId, eventId);
 
         Event event = eventService.getByUserIdAndEventId(userId, eventId);
@@ -103,7 +101,6 @@ public class EventController {
     public EventResponseDto update(@RequestBody @Validated UpdateEventRequestDto updateEventRequestDto,
                                    @PathVariable int userId,
                                    @PathVariable int eventId) {
-        log.info("PRIVATE PATCH");
         log.info("Request from user id = {} to update event id = {}, event:{}",
                 userId, eventId, updateEventRequestDto);
 
@@ -134,16 +131,12 @@ public class EventController {
                                          @RequestParam(required = false) List<Integer> categories,
                                          @RequestParam(required = false) String rangeStart,
                                          @RequestParam(required = false) String rangeEnd,
+                                         @RequestParam(required = false) @Min(0) Integer after,
                                          @RequestParam(defaultValue = "0", required = false) @Min(0) int from,
                                          @RequestParam(defaultValue = "10", required = false) @Min(1) int size) {
-        log.info("ADMIN GET");
-        log.info("Admin request for events. " +
-                "\nusers = {}; " +
-                "\nstates = {}; " +
-                "\ncategories = {};" +
-                "\nrangeStart = {}; " +
-                "\nrangeEnd = {}; " +
-                "\nfrom = {}, size = {}.", users, states, categories, rangeStart, rangeEnd, from, size);
+        log.info("Admin request for events: users = {}, states = {}, categories = {}, rangeStart = {}, " +
+                "rangeEnd = {}, after = {}, from = {}, size = {}",
+                users, states, categories, rangeStart, rangeEnd, after, from, size);
         List<State> eventStates = Optional.ofNullable(states)
                 .map(list -> list.stream()
                         .filter(Objects::nonNull)
@@ -162,6 +155,7 @@ public class EventController {
                 categories,
                 eventStart,
                 eventEnd,
+                after,
                 from,
                 size).stream()
                      .map(EventMapper::toEventResponseDto)
@@ -172,9 +166,7 @@ public class EventController {
     @ResponseStatus(HttpStatus.OK)
     public EventResponseDto update(@RequestBody UpdateEventRequestDto updateEventRequestDto,
                                    @PathVariable int eventId) {
-        log.info("ADMIN PATCH");
-        log.info("Admin request for update event id = {}; " +
-                "\nupdated event: {}", eventId, updateEventRequestDto);
+        log.info("Admin request for update event id = {}, event: {}", eventId, updateEventRequestDto);
         Event.EventBuilder updateEventBuilder = EventMapper.toEvent(updateEventRequestDto).toBuilder();
         if (updateEventRequestDto.getStateAction() != null) {
             validateEventStateUpdateAdminAction(updateEventRequestDto.getStateAction());
@@ -204,17 +196,13 @@ public class EventController {
                                          @RequestParam(required = false) String rangeEnd,
                                          @RequestParam(required = false) Boolean onlyAvailable,
                                          @RequestParam(required = false) String sort,
+                                         @RequestParam(required = false) String after,
                                          @RequestParam(defaultValue = "0", required = false) @Min(0) int from,
                                          @RequestParam(defaultValue = "10", required = false) @Min(1) int size,
                                          HttpServletRequest request) {
-        log.info("COMMON GET");
-        log.info("Common request for events. " +
-                "\ntext = {}; " +
-                "\ncategories = {};" +
-                "\npaid = {} ;" +
-                "\nrangeStart = {}; " +
-                "\nrangeEnd = {}; " +
-                "\nfrom = {}, size = {}.", text, categories, paid, rangeStart, rangeEnd, from, size);
+        log.info("Common request for events: text = {}, categories = {}, paid = {}, rangeStart = {}, " +
+                "rangeEnd = {}, onlyAvailable = {}, sort = {}, after = {}, from = {}, size = {}",
+                text, categories, paid, rangeStart, rangeEnd, onlyAvailable, sort, after, from, size);
         LocalDateTime eventStart = Optional.ofNullable(rangeStart)
                 .map(DateTimeUtils::parse)
                 .orElse(null);
@@ -234,49 +222,37 @@ public class EventController {
                 request.getRequestURI(),
                 request.getRemoteAddr(),
                 DateTimeUtils.format(LocalDateTime.now()));
-        statsClient.saveStat(hitDto); //это сохранится по /events, м.б. надо будет исправить на весь list
-        List<Event> events = new ArrayList<>(eventService.searchPublishedEvents(
-                text, categories, paid, eventStart, eventEnd, onlyAvailable, from, size));
-        List<String> uris = events.stream()
-                .map(e -> String.format("events/%d", e.getId()))
-                .collect(Collectors.toList());
-        List<Stat> stats = statsClient.getStat(null, null, uris, false);
-        Map<String, Integer> s = new HashMap<>();
-        for (Stat stat : stats) {
-            s.put(stat.getUri(), stat.getHits());
-        }
-        List<EventResponseDto> eventsDto = events.stream()
-                .map(e -> EventMapper.toEventResponseDto(e, s.get(String.format("events/%d", e.getId()))))
-                .collect(Collectors.toList());
-        if (sort != null) {
-            if (sort.equals("VIEWS")) {
-                eventsDto = eventsDto.stream()
-                        .sorted(Comparator.comparing(EventResponseDto::getViews))
-                        .collect(Collectors.toList());
-            }
-        }
+        // the listing is buffered as one hit of /events and does not add views to the listed events
+        eventViewsService.hit(hitDto);
+        List<Event> events = eventService.searchPublishedEvents(
+                text, categories, paid, eventStart, eventEnd, onlyAvailable,
+                sort == null ? EventSort.EVENT_DATE : EventSort.valueOf(sort),
+                Optional.ofNullable(after).map(EventDateCursor::parse).orElse(null),
+                from, size);
+        Map<Integer, Integer> views = eventViewsService.getViews(events.stream()
+                .map(Event::getId)
+                .collect(Collectors.toList()));
 
-        return eventsDto;
+        return events.stream()
+                .map(e -> EventMapper.toEventResponseDto(e, views.get(e.getId())))
+                .collect(Collectors.toList());
     }
 
     @GetMapping("/events/{id}")
     @ResponseStatus(HttpStatus.OK)
     public EventResponseDto get(@PathVariable int id,
                                 HttpServletRequest request) {
-        log.info("COMMON GET");
         log.info("Public request for event with id = {}", id);
         Event event = eventService.getPublishedEventById(id);
-        List<Stat> stats = statsClient.getStat(null,
-                null,
-                List.of(request.getRequestURI()),
-                false);
+        // views are looked up only for published events; like the listing, a stats-server failure fails the request
+        int views = eventViewsService.getViews(id);
         HitDto hitDto = new HitDto("EwmServiceApplication",
                 request.getRequestURI(),
                 request.getRemoteAddr(),
                 DateTimeUtils.format(LocalDateTime.now()));
-        statsClient.saveStat(hitDto);
+        eventViewsService.hit(hitDto);
 
-        return EventMapper.toEventResponseDto(event, stats.get(0).getHits());
+        return EventMapper.toEventResponseDto(event, views);
     }
 //common path end
 
@@ -35,13 +35,14 @@ public class UserController {
     @GetMapping
     @ResponseStatus(HttpStatus.OK)
     public List<User> getAll(@RequestParam(required = false) List<Integer> ids,
+                             @RequestParam(required = false) @Min(0) Integer after,
                              @RequestParam(required = false, defaultValue = "0") @Min(0) int from,
                              @RequestParam(required = false, defaultValue = "10") @Min(1) int size) {
-        log.info("Request for get all users with ids = {}, from = {}, size = {}", ids, from, size);
+        log.info("Request for get all users with ids = {}, after = {}, from = {}, size = {}", ids, after, from, size);
 
         return ids != null && ids.size() > 0
-                ? userService.findAllById(ids, from, size)
-                : userService.findAll(from, size);
+                ? userService.findAllById(ids, after, from, size)
+                : userService.findAll(after, from, size);
     }
 
     @DeleteMapping("{userId}")
@@ -33,4 +33,5 @@ public class EventRequestDto {
     boolean requestModeration;
     @NotNull
     String title;
+    Boolean waitlist;
 }
\ No newline at end of file
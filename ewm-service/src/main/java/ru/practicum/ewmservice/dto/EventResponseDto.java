@@ -21,6 +21,7 @@ public class EventResponseDto {
     boolean paid;
     int participantLimit;
     boolean requestModeration;
+    boolean waitlist;
     String publishedOn;
     String title;
     UserResponseDto initiator;
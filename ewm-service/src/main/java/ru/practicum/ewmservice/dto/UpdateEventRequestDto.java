@@ -23,6 +23,7 @@ public class UpdateEventRequestDto {
     Integer participantLimit;
     Boolean paid;
     Boolean requestModeration;
+    Boolean waitlist;
     Integer category;
     UpdateEventStateAction stateAction;
 }
@@ -21,6 +21,7 @@ public class EventMapper {
                 .participantLimit(eventRequestDto.getParticipantLimit())
                 .requestModeration(eventRequestDto.isRequestModeration())
                 .title(eventRequestDto.getTitle())
+                .waitlist(Boolean.TRUE.equals(eventRequestDto.getWaitlist()))
                 .build();
     }
 
@@ -60,6 +61,7 @@ public class EventMapper {
                 .initiator(initiator)
                 .location(location)
                 .requestModeration(event.getRequestModeration())
+                .waitlist(Boolean.TRUE.equals(event.getWaitlist()))
                 .publishedOn(publishedOn)
                 .build();
     }
@@ -83,6 +85,7 @@ public class EventMapper {
                 .participantLimit(eventDto.getParticipantLimit())
                 .paid(eventDto.getPaid())
                 .requestModeration(eventDto.getRequestModeration())
+                .waitlist(eventDto.getWaitlist())
                 .build();
     }
 }
\ No newline at end of file
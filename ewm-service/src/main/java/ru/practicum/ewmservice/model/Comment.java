@@ -15,7 +15,8 @@ import java.time.LocalDateTime;
 @Builder(toBuilder = true)
 public class Comment {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "comments_seq")
+    @SequenceGenerator(name = "comments_seq", sequenceName = "comments_comment_id_seq", allocationSize = 50)
     @Column(name = "comment_id")
     int id;
     @ManyToOne(fetch = FetchType.LAZY)
@@ -15,7 +15,8 @@ import java.util.List;
 @Builder(toBuilder = true)
 public class Compilation {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "compilations_seq")
+    @SequenceGenerator(name = "compilations_seq", sequenceName = "compilations_compilation_id_seq", allocationSize = 50)
     @Column(name = "compilation_id")
     int id;
     Boolean pinned;
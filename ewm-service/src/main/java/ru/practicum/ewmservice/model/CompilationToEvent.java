@@ -14,7 +14,8 @@ import javax.persistence.*;
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class CompilationToEvent {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "events_to_compilations_seq")
+    @SequenceGenerator(name = "events_to_compilations_seq", sequenceName = "events_to_compilations_id_seq", allocationSize = 50)
     Integer id;
     @Column(name = "event_id", nullable = false)
     Integer eventId;
@@ -15,13 +15,14 @@ import java.time.LocalDateTime;
 @Builder(toBuilder = true)
 public class Event {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "events_seq")
+    @SequenceGenerator(name = "events_seq", sequenceName = "events_event_id_seq", allocationSize = 50)
     @Column(name = "event_id")
     int id;
     @ManyToOne(fetch = FetchType.LAZY, cascade = {CascadeType.ALL})
     @JoinColumn(name = "category_id")
     Category category;
-    @Column(name = "confirmed_request")
+    @Column(name = "confirmed_request", updatable = false)
     int confirmedRequest;
     LocalDateTime created;
     String description;
@@ -44,4 +45,7 @@ public class Event {
     @Enumerated(EnumType.STRING)
     State state;
     String title;
+    Boolean waitlist;
+    @Column(insertable = false, updatable = false)
+    int views;
 }
@@ -0,0 +1,7 @@
+package ru.practicum.ewmservice.model;
+
+public enum EventSort {
+    EVENT_DATE,
+    VIEWS,
+    RELEVANCE
+}
@@ -14,7 +14,8 @@ import javax.persistence.*;
 @Builder(toBuilder = true)
 public class Location {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "locations_seq")
+    @SequenceGenerator(name = "locations_seq", sequenceName = "locations_location_id_seq", allocationSize = 50)
     @Column(name = "location_id")
     int id;
     float lat;
@@ -4,5 +4,6 @@ public enum ParticipationRequestState {
     PENDING,
     CANCELED,
     CONFIRMED,
-    REJECTED
+    REJECTED,
+    WAITING
 }
\ No newline at end of file
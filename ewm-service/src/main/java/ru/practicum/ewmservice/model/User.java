@@ -14,7 +14,8 @@ import javax.persistence.*;
 @Builder(toBuilder = true)
 public class User {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_user_id_seq", allocationSize = 50)
     @Column(name = "user_id")
     int id;
     String name;
@@ -20,6 +20,7 @@ import java.util.List;
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class CategoryService {
     final CategoryRepository categoryRepository;
+    final CompilationResponseCache compilationResponseCache;
 
     public Category add(Category category) {
         return categoryRepository.save(category);
@@ -32,8 +33,10 @@ public class CategoryService {
 
     public Category update(int id, Category category) {
         throwIfCategoryNotExist(id);
+        Category savedCategory = categoryRepository.save(category);
+        compilationResponseCache.evictAll();
 
-        return categoryRepository.save(category);
+        return savedCategory;
     }
 
     public List<Category> findAll(int from, int size) {
@@ -51,11 +51,12 @@ public class CommentService {
                 .orElseThrow(() -> new NotFoundException(HttpStatus.NOT_FOUND, "User has no comment for this event"));
     }
 
-    public List<Comment> getAllByUserId(int userId, int from, int size) {
-        Pageable pageable = PageRequest.of(from / size, size);
+    public List<Comment> getAllByUserId(int userId, Integer after, int from, int size) {
+        Pageable pageable = after == null ? PageRequest.of(from / size, size) : PageRequest.of(0, size);
 
-        return commentRepository.findAllByUserId(userId, pageable)
-                .getContent();
+        return commentRepository.findAllByUserIdAndIdGreaterThanOrderByIdAsc(userId,
+                after == null ? 0 : after,
+                pageable);
     }
 
     public List<Comment> getAllByUsersAndEventsAndApprovedAndPublishedOn(
@@ -64,9 +65,10 @@ public class CommentService {
             boolean isApproved,
             LocalDateTime commentCreatedStart,
             LocalDateTime commentCreatedEnd,
+            Integer after,
             int from,
             int size) {
-        Pageable pageable = PageRequest.of(from / size, size);
+        Pageable pageable = after == null ? PageRequest.of(from / size, size) : PageRequest.of(0, size);
 
         return commentRepository.getAllByUsersAndEventsAndApprovedAndPublishedOn(
                 userIds,
@@ -74,8 +76,8 @@ public class CommentService {
                 isApproved,
                 commentCreatedStart,
                 commentCreatedEnd,
-                pageable)
-                .getContent();
+                after == null ? 0 : after,
+                pageable);
     }
 
     public Comment getById(int commentId) {
@@ -83,10 +85,9 @@ public class CommentService {
                 .orElseThrow(() -> new NotFoundException(HttpStatus.NOT_FOUND, "Comment not found"));
     }
 
-    public List<Comment> getAllByEventId(int eventId, int from, int size) {
-        Pageable pageable = PageRequest.of(from / size, size);
+    public List<Comment> getAllByEventId(int eventId, Integer after, int from, int size) {
+        Pageable pageable = after == null ? PageRequest.of(from / size, size) : PageRequest.of(0, size);
 
-        return commentRepository.getALlByEventIdAndApproved(eventId, pageable)
-                .getContent();
+        return commentRepository.getALlByEventIdAndApproved(eventId, after == null ? 0 : after, pageable);
     }
 }
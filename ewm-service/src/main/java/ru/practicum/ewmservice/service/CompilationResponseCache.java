@@ -0,0 +1,176 @@
+package ru.practicum.ewmservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.practicum.ewmservice.dto.CompilationResponseDto;
+import ru.practicum.ewmservice.dto.EventResponseDto;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Serialized responses of the public compilation endpoints.
+ * Entries are evicted when their compilation changes or when any event they contain is updated,
+ * and all of them when a category is renamed, since every event response carries its category name;
+ * a response loaded while an eviction was running is not stored.
+ * Initiator names cannot go stale, as users are never updated.
+ * Evictions remove entries through the map and unlink their events themselves, since the eviction listener
+ * only sees entries dropped for size or expiry.
+ */
+@Service
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class CompilationResponseCache {
+    static final String LIST_KEY_PREFIX = "list:";
+    static final String COMPILATION_KEY_PREFIX = "compilation:";
+
+    final ObjectMapper objectMapper;
+    final Cache<String, CachedResponse> cache;
+    final Map<Integer, Set<String>> keysByEventId = new ConcurrentHashMap<>();
+    final AtomicLong generation = new AtomicLong();
+
+    public CompilationResponseCache(ObjectMapper objectMapper,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${compilations-cache.maximum-size:1000}") long maximumSize,
+                                    @Value("${compilations-cache.expire-after-ms:600000}") long expireAfterMs) {
+        this.objectMapper = objectMapper;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(expireAfterMs))
+                .evictionListener((String key, CachedResponse response, RemovalCause cause) -> {
+                    if (key != null && response != null) {
+                        unlinkEvents(key, response.getEventIds());
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "compilations");
+    }
+
+    public byte[] getAll(Boolean pinned, int from, int size, Supplier<List<CompilationResponseDto>> loader) {
+        String key = LIST_KEY_PREFIX + pinned + ":" + from + ":" + size;
+
+        return get(key, () -> {
+            List<CompilationResponseDto> compilations = loader.get();
+            Set<Integer> eventIds = compilations.stream()
+                    .flatMap(compilation -> compilation.getEvents().stream())
+                    .map(EventResponseDto::getId)
+                    .collect(Collectors.toSet());
+
+            return new CachedResponse(serialize(compilations), eventIds);
+        });
+    }
+
+    public byte[] getById(int compId, Supplier<CompilationResponseDto> loader) {
+        return get(COMPILATION_KEY_PREFIX + compId, () -> {
+            CompilationResponseDto compilation = loader.get();
+            Set<Integer> eventIds = compilation.getEvents().stream()
+                    .map(EventResponseDto::getId)
+                    .collect(Collectors.toSet());
+
+            return new CachedResponse(serialize(compilation), eventIds);
+        });
+    }
+
+    public void evictCompilation(int compId) {
+        generation.incrementAndGet();
+        invalidate(COMPILATION_KEY_PREFIX + compId);
+        cache.asMap().keySet().stream()
+                .filter(key -> key.startsWith(LIST_KEY_PREFIX))
+                .collect(Collectors.toList())
+                .forEach(this::invalidate);
+        log.debug("Compilation {} evicted from response cache", compId);
+    }
+
+    public void evictEvent(int eventId) {
+        generation.incrementAndGet();
+        Set<String> keys = keysByEventId.remove(eventId);
+        if (keys == null) {
+            return;
+        }
+        keys.forEach(this::invalidate);
+        log.debug("Responses with event {} evicted from compilation cache", eventId);
+    }
+
+    public void evictAll() {
+        generation.incrementAndGet();
+        cache.asMap().keySet().stream()
+                .collect(Collectors.toList())
+                .forEach(this::invalidate);
+        log.debug("All responses evicted from compilation cache");
+    }
+
+    private byte[] get(String key, Supplier<CachedResponse> loader) {
+        CachedResponse cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached.getBody();
+        }
+        long loadGeneration = generation.get();
+        CachedResponse loaded = loader.get();
+        cache.asMap().compute(key, (k, current) -> {
+            if (generation.get() != loadGeneration) {
+                return current;
+            }
+            if (current != null) {
+                unlinkEvents(key, current.getEventIds());
+            }
+            loaded.getEventIds().forEach(eventId -> keysByEventId.compute(eventId, (id, keys) -> {
+                Set<String> linkedKeys = keys == null ? ConcurrentHashMap.newKeySet() : keys;
+                linkedKeys.add(key);
+                return linkedKeys;
+            }));
+
+            return loaded;
+        });
+
+        return loaded.getBody();
+    }
+
+    private void invalidate(String key) {
+        CachedResponse removed = cache.asMap().remove(key);
+        if (removed != null) {
+            unlinkEvents(key, removed.getEventIds());
+        }
+    }
+
+    private void unlinkEvents(String key, Set<Integer> eventIds) {
+        eventIds.forEach(eventId -> keysByEventId.computeIfPresent(eventId, (id, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        }));
+    }
+
+    private byte[] serialize(Object response) {
+        try {
+            return objectMapper.writeValueAsBytes(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize compilation response", e);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    static class CachedResponse {
+        byte[] body;
+        Set<Integer> eventIds;
+    }
+}
@@ -4,7 +4,6 @@ import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
@@ -26,9 +25,13 @@ import java.util.stream.Collectors;
 public class CompilationService {
     final CompilationRepository compilationRepository;
     final CompilationToEventRepository compilationToEventRepository;
+    final CompilationResponseCache compilationResponseCache;
 
     public Compilation create(Compilation compilation) {
-        return compilationRepository.save(compilation);
+        Compilation savedCompilation = compilationRepository.save(compilation);
+        compilationResponseCache.evictCompilation(savedCompilation.getId());
+
+        return savedCompilation;
     }
 
     public Compilation get(int id) {
@@ -39,6 +42,7 @@ public class CompilationService {
     public void delete(int id) {
         throwIfCompilationNotExist(id);
         compilationRepository.deleteById(id);
+        compilationResponseCache.evictCompilation(id);
     }
 
     public Compilation update(Compilation newCompilation) {
@@ -90,7 +94,10 @@ public class CompilationService {
             newCompilationBuilder.events(null);
         }
 
-        return compilationRepository.save(newCompilationBuilder.build());
+        Compilation savedCompilation = compilationRepository.save(newCompilationBuilder.build());
+        compilationResponseCache.evictCompilation(savedCompilation.getId());
+
+        return savedCompilation;
     }
 
     public Compilation getById(int compId) {
@@ -98,12 +105,13 @@ public class CompilationService {
                 .orElseThrow(() -> new NotFoundException(HttpStatus.NOT_FOUND, "Compilation not found"));
     }
 
-    public Page<Compilation> getAll(Boolean pinned, int from, int size) {
+    public List<Compilation> getAll(Boolean pinned, int from, int size) {
         Pageable pageable = PageRequest.of(from / size, size);
+        List<Integer> compilationIds = compilationRepository.findIdsByPinned(pinned, pageable);
 
-        return pinned != null
-                ? compilationRepository.findAllByPinnedEquals(pinned, pageable)
-                : compilationRepository.findAll(pageable);
+        return compilationIds.isEmpty()
+                ? List.of()
+                : compilationRepository.findDistinctByIdInOrderByIdAsc(compilationIds);
     }
 
     private void throwIfCompilationNotExist(int id) {
@@ -1,5 +1,6 @@
 package ru.practicum.ewmservice.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.experimental.FieldDefaults;
@@ -7,28 +8,38 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import ru.practicum.ewmservice.exception.BadRequestException;
 import ru.practicum.ewmservice.exception.ForbiddenOperation;
 import ru.practicum.ewmservice.exception.NotFoundException;
 import ru.practicum.ewmservice.model.Event;
+import ru.practicum.ewmservice.model.EventSort;
 import ru.practicum.ewmservice.model.State;
 import ru.practicum.ewmservice.storage.EventRepository;
 import ru.practicum.ewmservice.storage.UserRepository;
+import ru.practicum.ewmservice.util.EventDateCursor;
 
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 @Service
 @AllArgsConstructor
 @FieldDefaults(level = AccessLevel.PRIVATE)
+@Timed("service.calls")
 public class EventService {
     static final String UPDATE_PUBLISHED_EVENT = "Only pending or canceled events can be changed by user";
     static final String ADMIN_PUBLISH_EVENT_IS_REJECTED_ERROR = "Cannot publish the event because it's not in the right state: %s";
     static final String ADMIN_CANCEL_EVENT_IS_REJECTED_ERROR = "Cannot cancel the event because it's not in the right state: %s";
     static final String INVALID_EVENT_DATE_ERROR = "eventDate должно содержать дату после: %s";
     static final int MINIMAL_EVENT_DATE_HOURS = 2;
+    static final Pattern SEARCH_WORD_DELIMITER = Pattern.compile("[^\\p{L}\\p{N}]+");
     final EventRepository eventRepository;
     final UserRepository userRepository;
+    final PublishedEventIndex publishedEventIndex;
+    final CompilationResponseCache compilationResponseCache;
 
     public Event get(int id) {
         return eventRepository.findById(id)
@@ -44,11 +55,10 @@ public class EventService {
         return eventRepository.save(event);
     }
 
-    public List<Event> getAllByUserId(int userId, int from, int size) {
-        Pageable pageable = PageRequest.of(from / size, size);
+    public List<Event> getAllByUserId(int userId, Integer after, int from, int size) {
+        Pageable pageable = after == null ? PageRequest.of(from / size, size) : PageRequest.of(0, size);
 
-        return eventRepository.findAllByInitiatorId(userId, pageable)
-                .getContent();
+        return eventRepository.findAllByInitiatorIdAndIdAfter(userId, after == null ? 0 : after, pageable);
     }
 
     public Event getByUserIdAndEventId(int userId, int eventId) {
@@ -69,8 +79,11 @@ public class EventService {
             throw new ForbiddenOperation(HttpStatus.FORBIDDEN, UPDATE_PUBLISHED_EVENT);
         }
         Event updatedEvent = this.updateEvent(event, updateEvent).build();
+        Event savedEvent = eventRepository.save(updatedEvent);
+        publishedEventIndex.put(savedEvent);
+        compilationResponseCache.evictEvent(savedEvent.getId());
 
-        return eventRepository.save(updatedEvent);
+        return savedEvent;
     }
 
     private Event.EventBuilder updateEvent(Event event, Event updateEvent) {
@@ -108,6 +121,10 @@ public class EventService {
                 && !event.getRequestModeration().equals(updateEvent.getRequestModeration())) {
             updatedEventBuilder.requestModeration(updateEvent.getRequestModeration());
         }
+        if (updateEvent.getWaitlist() != null
+                && !updateEvent.getWaitlist().equals(event.getWaitlist())) {
+            updatedEventBuilder.waitlist(updateEvent.getWaitlist());
+        }
         if (updateEvent.getCategory() != null
                 && !event.getCategory().equals(updateEvent.getCategory())) {
             updatedEventBuilder.category(updateEvent.getCategory());
@@ -126,9 +143,10 @@ public class EventService {
                                                                          List<Integer> categories,
                                                                          LocalDateTime eventStart,
                                                                          LocalDateTime eventEnd,
+                                                                         Integer after,
                                                                          int from,
                                                                          int size) {
-        Pageable pageable = PageRequest.of(from / size, size);
+        Pageable pageable = after == null ? PageRequest.of(from / size, size) : PageRequest.of(0, size);
 
         return eventRepository.findAllByInitiatorIdAndStateAndCategoriesAndEventDate(
                 users,
@@ -136,8 +154,9 @@ public class EventService {
                 categories,
                 eventStart,
                 eventEnd,
+                after == null ? 0 : after,
                 pageable
-        ).getContent();
+        );
     }
 
     public Event update(int eventId, Event updateEvent) {
@@ -167,8 +186,11 @@ public class EventService {
                     String.format(ADMIN_CANCEL_EVENT_IS_REJECTED_ERROR, event.getState()));
         }
         Event updatedEvent = this.updateEvent(event, updateEvent).build();
+        Event savedEvent = eventRepository.save(updatedEvent);
+        publishedEventIndex.put(savedEvent);
+        compilationResponseCache.evictEvent(savedEvent.getId());
 
-        return eventRepository.save(updatedEvent);
+        return savedEvent;
     }
 
 //common
@@ -178,17 +200,49 @@ public class EventService {
                                              LocalDateTime eventStart,
                                              LocalDateTime eventEnd,
                                              Boolean onlyAvailable,
+                                             EventSort sort,
+                                             EventDateCursor after,
                                              int from,
                                              int size) {
-        Pageable pageable = PageRequest.of(from / size, size);
+        String query = toPrefixTsQuery(text);
+        if (sort == EventSort.RELEVANCE && query == null) {
+            sort = EventSort.EVENT_DATE;
+        }
+        if (sort != EventSort.EVENT_DATE && after != null) {
+            throw new BadRequestException(HttpStatus.BAD_REQUEST, "after is supported only for sort by event date");
+        }
+        if (publishedEventIndex.canServe(query, sort, eventStart)) {
+            return publishedEventIndex.search(categories, paid, eventStart, eventEnd, onlyAvailable, after, from, size);
+        }
+        if (sort == EventSort.RELEVANCE) {
+            return eventRepository.searchPublishedEventsOrderByRelevance(query,
+                    categories,
+                    paid,
+                    eventStart,
+                    eventEnd,
+                    onlyAvailable,
+                    PageRequest.of(from / size, size));
+        }
+        if (sort == EventSort.VIEWS) {
+            return eventRepository.searchPublishedEventsOrderByViewsDesc(query,
+                    categories,
+                    paid,
+                    eventStart,
+                    eventEnd,
+                    onlyAvailable,
+                    PageRequest.of(from / size, size));
+        }
+        Pageable pageable = after == null ? PageRequest.of(from / size, size) : PageRequest.of(0, size);
 
-        return eventRepository.searchPublishedEventsOrderByEventDateAsc(text,
+        return eventRepository.searchPublishedEventsOrderByEventDateAsc(query,
                 categories,
                 paid,
                 eventStart,
                 eventEnd,
                 onlyAvailable,
-                pageable).getContent();
+                after == null ? null : after.getEventDate(),
+                after == null ? null : after.getId(),
+                pageable);
     }
 
     public Event getPublishedEventById(int id) {
@@ -199,9 +253,21 @@ public class EventService {
 
 //for compilation
     public List<Event> getAllByIds(List<Integer> eventIds) {
-        return eventRepository.findAllById(eventIds);
+        return eventRepository.findAllWithRelationsByIdIn(eventIds);
 }
 
+    private String toPrefixTsQuery(String text) {
+        if (text == null) {
+            return null;
+        }
+        String query = Arrays.stream(SEARCH_WORD_DELIMITER.split(text))
+                .filter(word -> !word.isEmpty())
+                .map(word -> word + ":*")
+                .collect(Collectors.joining(" & "));
+
+        return query.isEmpty() ? null : query;
+    }
+
     private void throwIfEventDateNotValid(LocalDateTime eventDate) {
         LocalDateTime minimalEventDate = LocalDateTime.now().plusHours(MINIMAL_EVENT_DATE_HOURS);
         if (eventDate.isBefore(minimalEventDate)) {
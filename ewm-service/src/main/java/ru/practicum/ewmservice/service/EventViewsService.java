@@ -0,0 +1,200 @@
+package ru.practicum.ewmservice.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.practicum.statsclient.StatsClient;
+import ru.practicum.statsclient.VirtualThreads;
+import ru.practicum.statsdto.HitDto;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Near-cache of event view counts keyed by event uri.
+ * Entries older than the refresh interval are served while a reload runs in the background,
+ * and recorded hits are counted locally so counts do not go down between reloads.
+ * Local counts are kept beside the cache rather than written into it, since a write would restart
+ * the refresh and expiry timers of frequently viewed events.
+ */
+@Service
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class EventViewsService {
+    static final String EVENT_URI_FORMAT = "/events/%d";
+
+    final StatsClient statsClient;
+    final AsyncLoadingCache<String, ViewCount> cache;
+    final ConcurrentMap<String, LongAdder> localHits = new ConcurrentHashMap<>();
+    final Timer stalenessTimer;
+    final Ticker ticker;
+
+    @Autowired
+    public EventViewsService(StatsClient statsClient,
+                             MeterRegistry meterRegistry,
+                             @Value("${views-cache.maximum-size:10000}") long maximumSize,
+                             @Value("${views-cache.refresh-after-ms:5000}") long refreshAfterMs,
+                             @Value("${views-cache.expire-after-ms:60000}") long expireAfterMs,
+                             @Value("${virtual-threads.enabled:false}") boolean virtualThreads) {
+        this(statsClient, meterRegistry, maximumSize, refreshAfterMs, expireAfterMs, Ticker.systemTicker(),
+                virtualThreads ? VirtualThreads.newThreadPerTaskExecutor("views-refresh-") : ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Tests pass a manual ticker and a same-thread executor to step through refresh and expiry.
+     */
+    EventViewsService(StatsClient statsClient,
+                      MeterRegistry meterRegistry,
+                      long maximumSize,
+                      long refreshAfterMs,
+                      long expireAfterMs,
+                      Ticker ticker,
+                      Executor executor) {
+        this.statsClient = statsClient;
+        this.ticker = ticker;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .refreshAfterWrite(Duration.ofMillis(refreshAfterMs))
+                .expireAfterWrite(Duration.ofMillis(expireAfterMs))
+                .evictionListener((String uri, ViewCount viewCount, RemovalCause cause) -> localHits.remove(uri))
+                .ticker(ticker)
+                .executor(executor)
+                .recordStats()
+                .buildAsync(new ViewCountLoader());
+        this.stalenessTimer = Timer.builder("views.cache.staleness")
+                .description("Age of the view count returned from the cache")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "views");
+    }
+
+    public static String eventUri(int eventId) {
+        return String.format(EVENT_URI_FORMAT, eventId);
+    }
+
+    public void hit(HitDto hitDto) {
+        statsClient.saveStat(hitDto);
+        if (cache.asMap().containsKey(hitDto.getUri())) {
+            localHits.computeIfAbsent(hitDto.getUri(), uri -> new LongAdder()).increment();
+        }
+    }
+
+    public int getViews(int eventId) {
+        return getViews(List.of(eventId)).get(eventId);
+    }
+
+    public Map<Integer, Integer> getViews(Collection<Integer> eventIds) {
+        return join(getViewsAsync(eventIds));
+    }
+
+    private CompletableFuture<Map<Integer, Integer>> getViewsAsync(Collection<Integer> eventIds) {
+        Set<String> uris = eventIds.stream()
+                .map(EventViewsService::eventUri)
+                .collect(Collectors.toSet());
+
+        return cache.getAll(uris).thenApply(viewCounts -> {
+            long now = ticker.read();
+            Map<Integer, Integer> views = new HashMap<>();
+            for (Integer eventId : eventIds) {
+                String uri = eventUri(eventId);
+                ViewCount viewCount = viewCounts.get(uri);
+                stalenessTimer.record(now - viewCount.getLoadedAt(), TimeUnit.NANOSECONDS);
+                views.put(eventId, (int) (viewCount.getViews() + localHitsOf(uri) - viewCount.getFoldedHits()));
+            }
+            return views;
+        });
+    }
+
+    private long localHitsOf(String uri) {
+        LongAdder hits = localHits.get(uri);
+
+        return hits != null ? hits.sum() : 0;
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    static class ViewCount {
+        int views;
+        long loadedAt;
+        /**
+         * Local hits already included in {@code views}.
+         */
+        long foldedHits;
+    }
+
+    private class ViewCountLoader implements AsyncCacheLoader<String, ViewCount> {
+
+        @Override
+        public CompletableFuture<ViewCount> asyncLoad(String uri, Executor executor) {
+            return asyncLoadAll(Set.of(uri), executor).thenApply(viewCounts -> viewCounts.get(uri));
+        }
+
+        @Override
+        public CompletableFuture<Map<String, ViewCount>> asyncLoadAll(Iterable<? extends String> keys,
+                                                                     Executor executor) {
+            List<String> uris = new ArrayList<>();
+            keys.forEach(uris::add);
+            log.debug("Load views for {}", uris);
+            Map<String, Long> foldedHits = uris.stream()
+                    .distinct()
+                    .collect(Collectors.toMap(uri -> uri, EventViewsService.this::localHitsOf));
+
+            return statsClient.getViewsAsync(null, null, uris, false).thenApply(hits -> {
+                long loadedAt = ticker.read();
+                return foldedHits.entrySet().stream()
+                        .collect(Collectors.toMap(Map.Entry::getKey,
+                                entry -> new ViewCount(hits.getOrDefault(entry.getKey(), 0), loadedAt,
+                                        entry.getValue())));
+            });
+        }
+
+        @Override
+        public CompletableFuture<ViewCount> asyncReload(String uri, ViewCount oldValue, Executor executor) {
+            return asyncLoad(uri, executor).thenApply(loaded -> {
+                long previous = oldValue.getViews() + loaded.getFoldedHits() - oldValue.getFoldedHits();
+                return loaded.getViews() >= previous
+                        ? loaded
+                        : new ViewCount((int) previous, loaded.getLoadedAt(), loaded.getFoldedHits());
+            });
+        }
+    }
+}
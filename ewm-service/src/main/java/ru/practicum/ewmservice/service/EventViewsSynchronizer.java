@@ -0,0 +1,65 @@
+package ru.practicum.ewmservice.service;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ru.practicum.ewmservice.storage.EventRepository;
+import ru.practicum.statsclient.StatsClient;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Periodically copies view counts of published events from stats-server into events.views,
+ * which backs ordering of public search by views.
+ */
+@Service
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class EventViewsSynchronizer {
+    final EventRepository eventRepository;
+    final StatsClient statsClient;
+    final int batchSize;
+
+    public EventViewsSynchronizer(EventRepository eventRepository,
+                                  StatsClient statsClient,
+                                  @Value("${views-sync.batch-size:500}") int batchSize) {
+        this.eventRepository = eventRepository;
+        this.statsClient = statsClient;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(initialDelayString = "${views-sync.initial-delay-ms:10000}",
+            fixedDelayString = "${views-sync.interval-ms:60000}")
+    public void sync() {
+        int afterId = 0;
+        int updated = 0;
+        List<Integer> eventIds;
+        try {
+            do {
+                eventIds = eventRepository.findPublishedIds(afterId, PageRequest.of(0, batchSize));
+                if (eventIds.isEmpty()) {
+                    break;
+                }
+                List<String> uris = eventIds.stream()
+                        .map(EventViewsService::eventUri)
+                        .collect(Collectors.toList());
+                Map<String, Integer> hits = statsClient.getViews(null, null, uris, false);
+                updated += eventRepository.updateViews(eventIds.stream()
+                        .collect(Collectors.toMap(id -> id,
+                                id -> hits.getOrDefault(EventViewsService.eventUri(id), 0))));
+                afterId = eventIds.get(eventIds.size() - 1);
+            } while (eventIds.size() == batchSize);
+        } catch (RuntimeException e) {
+            log.warn("Views sync stopped after event id {}: {}", afterId, e.getMessage());
+        }
+        if (updated > 0) {
+            log.info("Views sync updated {} events", updated);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package ru.practicum.ewmservice.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.AccessLevel;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
@@ -7,6 +8,7 @@ import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import ru.practicum.ewmservice.model.Event;
 import ru.practicum.ewmservice.model.ParticipationRequest;
 import ru.practicum.ewmservice.model.ParticipationRequestState;
@@ -17,31 +19,35 @@ import ru.practicum.ewmservice.storage.EventRepository;
 import ru.practicum.ewmservice.storage.ParticipationRequestRepository;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
 
 @Service
 @Slf4j
 @FieldDefaults(level = AccessLevel.PRIVATE)
 @RequiredArgsConstructor
+@Timed("service.calls")
 public class ParticipationRequestService {
 
     static final String NOT_FOUND_MSG_FORMAT = "Event request with id=%d was not found";
     static final String USER_REQUEST_FOR_UNPUBLISHED_EVENT_IS_REJECTED_ERROR_MSG = "Event must be published to participate";
+    static final String NO_FREE_SLOTS_ERROR_MSG = "Event must have free slots to participate";
     final ParticipationRequestRepository participationRequestRepository;
     final EventRepository eventRepository;
+    final PublishedEventIndex publishedEventIndex;
+    final CompilationResponseCache compilationResponseCache;
+    final TransactionTemplate transactionTemplate;
 
     public ParticipationRequest create(final @NonNull ParticipationRequest request) {
         Event event = request.getEvent();
+        boolean isWaitlist = Boolean.TRUE.equals(event.getWaitlist());
 
         if (!State.PUBLISHED.equals(event.getState())) {
             throw new ForbiddenOperation(HttpStatus.FORBIDDEN,
                     USER_REQUEST_FOR_UNPUBLISHED_EVENT_IS_REJECTED_ERROR_MSG);
-        } else if (event.getParticipantLimit()
+        } else if (!isWaitlist && event.getParticipantLimit()
                 .equals(event.getConfirmedRequest())) {
-            throw new ForbiddenOperation(HttpStatus.FORBIDDEN,
-                    "Event must have free slots to participate");
+            throw new ForbiddenOperation(HttpStatus.FORBIDDEN, NO_FREE_SLOTS_ERROR_MSG);
         }
         if (request.getEvent().getInitiator().getId() == (request.getRequester().getId())) {
             throw new ForbiddenOperation(HttpStatus.FORBIDDEN,
@@ -49,15 +55,25 @@ public class ParticipationRequestService {
         }
         boolean isAutoApproval = !event.getRequestModeration();
         ParticipationRequest.ParticipationRequestBuilder participationRequestBuilder = request.toBuilder();
-
-        if (isAutoApproval) {
-            participationRequestBuilder.status(ParticipationRequestState.CONFIRMED);
-        } else {
-            participationRequestBuilder.status(ParticipationRequestState.PENDING);
-        }
         participationRequestBuilder.createdOn(LocalDateTime.now());
+        // the event row stays locked until commit, so concurrent requests see each other's confirmations
+        ParticipationRequest savedRequest = transactionTemplate.execute(status -> {
+            if (isWaitlist && eventRepository.lockAndGetFreeSlots(event.getId()) <= 0) {
+                participationRequestBuilder.status(ParticipationRequestState.WAITING);
+            } else if (!isWaitlist && eventRepository.lockIfHasFreeSlots(event.getId()) == null) {
+                throw new ForbiddenOperation(HttpStatus.FORBIDDEN, NO_FREE_SLOTS_ERROR_MSG);
+            } else if (isAutoApproval) {
+                participationRequestBuilder.status(ParticipationRequestState.CONFIRMED);
+            } else {
+                participationRequestBuilder.status(ParticipationRequestState.PENDING);
+            }
 
-        return participationRequestRepository.save(participationRequestBuilder.build());
+            return participationRequestRepository.save(participationRequestBuilder.build());
+        });
+        publishedEventIndex.refreshConfirmedRequests(event.getId());
+        compilationResponseCache.evictEvent(event.getId());
+
+        return savedRequest;
     }
 
     public List<ParticipationRequest> getAllByRequester(int requesterId) {
@@ -67,12 +83,15 @@ public class ParticipationRequestService {
     public List<ParticipationRequest> getAllForEventIdByInitiator(List<Integer> requestIds,
                                                                   int eventId,
                                                                   int initiatorId) {
+        if (requestIds == null) {
+            return participationRequestRepository.findAllWhereEventIdEqualsAndInitiatorIdEquals(eventId, initiatorId);
+        }
+        if (requestIds.isEmpty()) {
+            return List.of();
+        }
+
         return participationRequestRepository
-                .findAllWhereRequestIdInAndEventIdEqualsAndInitiatorIdEqualsAndStatusEquals(requestIds,
-                        eventId,
-                        initiatorId,
-                        null
-        );
+                .findAllWhereRequestIdInAndEventIdEqualsAndInitiatorIdEquals(requestIds, eventId, initiatorId);
     }
 
     public ParticipationRequest getById(int requestId) throws NotFoundException {
@@ -93,7 +112,26 @@ public class ParticipationRequestService {
 
         ParticipationRequest.ParticipationRequestBuilder updatedEventRequestBuilder = participationRequest.toBuilder();
         updatedEventRequestBuilder.status(ParticipationRequestState.CANCELED);
-        return participationRequestRepository.save(updatedEventRequestBuilder.build());
+        Event event = participationRequest.getEvent();
+        boolean isSlotReleased = ParticipationRequestState.CONFIRMED.equals(participationRequest.getStatus());
+        // the cancellation is flushed first: its trigger frees the slot and locks the event row for the promotion
+        ParticipationRequest canceledRequest = transactionTemplate.execute(status -> {
+            ParticipationRequest saved = participationRequestRepository.saveAndFlush(updatedEventRequestBuilder.build());
+            if (isSlotReleased && Boolean.TRUE.equals(event.getWaitlist())) {
+                ParticipationRequestState promotedStatus = event.getRequestModeration()
+                        ? ParticipationRequestState.PENDING
+                        : ParticipationRequestState.CONFIRMED;
+                participationRequestRepository.promoteFirstWaiting(event.getId(), promotedStatus)
+                        .ifPresent(promoted -> log.info("Request id={} promoted from waitlist of event id={}",
+                                promoted.getId(), event.getId()));
+            }
+
+            return saved;
+        });
+        publishedEventIndex.refreshConfirmedRequests(canceledRequest.getEvent().getId());
+        compilationResponseCache.evictEvent(canceledRequest.getEvent().getId());
+
+        return canceledRequest;
     }
 
     public List<ParticipationRequest> confirmParticipationRequest(
@@ -110,40 +148,27 @@ public class ParticipationRequestService {
                     requestIds, eventId, initiatorId
             );
         }
+        if (event.getInitiator().getId() != initiatorId) {
+            return List.of();
+        }
 
-        final List<ParticipationRequest> participationRequests = this.getAllForEventIdByInitiator(requestIds, eventId, initiatorId);
-        final List<ParticipationRequest> confirmedEventRequests = new ArrayList<>();
-
-        for (ParticipationRequest participationRequest : participationRequests) {
-            if (!ParticipationRequestState.PENDING.equals(participationRequest.getStatus())) {
-                throw new ForbiddenOperation(HttpStatus.FORBIDDEN,
-                        "Request should be in non-terminal state");
+        List<ParticipationRequest> confirmedEventRequests = transactionTemplate.execute(status -> {
+            int freeSlots = eventRepository.lockAndGetFreeSlots(eventId);
+            int pendingRequests = countPendingOrThrow(eventId, requestIds);
+            if (pendingRequests > freeSlots) {
+                throw new ForbiddenOperation(HttpStatus.FORBIDDEN, "The participant limit has been reached");
+            }
+            List<ParticipationRequest> confirmed = participationRequestRepository
+                    .updatePendingStatus(eventId, requestIds, ParticipationRequestState.CONFIRMED);
+            if (confirmed.size() == freeSlots) {
+                participationRequestRepository
+                        .updatePendingStatus(eventId, null, ParticipationRequestState.REJECTED);
             }
 
-            ParticipationRequest updatedParticipationRequest = participationRequest.toBuilder()
-                    .status(ParticipationRequestState.CONFIRMED)
-                    .build();
-
-            confirmedEventRequests.add(updatedParticipationRequest);
-        }
-        eventRepository.save(event);
-        participationRequestRepository.saveAll(confirmedEventRequests);
-        if (!Objects.equals(event.getConfirmedRequest(), event.getParticipantLimit())) {
-            return confirmedEventRequests;
-        }
-        List<ParticipationRequest> rejectedParticipationRequest = new ArrayList<>();
-        List<ParticipationRequest> pendingParticipationRequest = participationRequestRepository
-                .findAllWhereRequestIdInAndEventIdEqualsAndInitiatorIdEqualsAndStatusEquals(
-                        null, eventId, initiatorId, ParticipationRequestState.PENDING
-                );
-
-        for (ParticipationRequest participationRequest : pendingParticipationRequest) {
-            ParticipationRequest updatedParticipationRequest = participationRequest.toBuilder()
-                    .status(ParticipationRequestState.REJECTED)
-                    .build();
-            rejectedParticipationRequest.add(updatedParticipationRequest);
-        }
-        participationRequestRepository.saveAll(rejectedParticipationRequest);
+            return confirmed;
+        });
+        publishedEventIndex.refreshConfirmedRequests(eventId);
+        compilationResponseCache.evictEvent(eventId);
 
         return confirmedEventRequests;
     }
@@ -153,23 +178,30 @@ public class ParticipationRequestService {
             int eventId,
             int initiatorId
     ) throws NotFoundException, ForbiddenOperation {
-        List<ParticipationRequest> participationRequest =
-                this.getAllForEventIdByInitiator(requestIds, eventId, initiatorId);
-        List<ParticipationRequest> rejectedParticipationRequest = new ArrayList<>();
-
-        for (ParticipationRequest pr : participationRequest) {
-            if (!ParticipationRequestState.PENDING.equals(pr.getStatus())) {
-                throw new ForbiddenOperation(HttpStatus.FORBIDDEN,
-                        "Request should be in non-terminal state");
-            }
-            ParticipationRequest updatedEParticipationRequest = pr.toBuilder()
-                    .status(ParticipationRequestState.REJECTED)
-                    .build();
+        Event event = eventRepository.findById(eventId)
+                .orElseThrow(() -> new NotFoundException(HttpStatus.NOT_FOUND,
+                        String.format("Event with id=%d was not found", eventId)));
+        if (event.getInitiator().getId() != initiatorId) {
+            return List.of();
+        }
+
+        return transactionTemplate.execute(status -> {
+            countPendingOrThrow(eventId, requestIds);
 
-            rejectedParticipationRequest.add(updatedEParticipationRequest);
+            return participationRequestRepository
+                    .updatePendingStatus(eventId, requestIds, ParticipationRequestState.REJECTED);
+        });
+    }
+
+    private int countPendingOrThrow(int eventId, List<Integer> requestIds) {
+        Map<ParticipationRequestState, Integer> counts = participationRequestRepository
+                .countByStatus(eventId, requestIds);
+        int pendingRequests = counts.getOrDefault(ParticipationRequestState.PENDING, 0);
+        if (counts.values().stream().mapToInt(Integer::intValue).sum() != pendingRequests) {
+            throw new ForbiddenOperation(HttpStatus.FORBIDDEN,
+                    "Request should be in non-terminal state");
         }
-        participationRequestRepository.saveAll(rejectedParticipationRequest);
 
-        return rejectedParticipationRequest;
+        return pendingRequests;
     }
 }
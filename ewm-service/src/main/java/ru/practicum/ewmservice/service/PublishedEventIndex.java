@@ -0,0 +1,331 @@
+package ru.practicum.ewmservice.service;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ru.practicum.ewmservice.model.Event;
+import ru.practicum.ewmservice.model.EventSort;
+import ru.practicum.ewmservice.model.State;
+import ru.practicum.ewmservice.storage.EventRepository;
+import ru.practicum.ewmservice.util.EventDateCursor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * In-memory copy of published events with event date from the horizon (the time of the last rebuild) on.
+ * It answers public searches without text, ordered by event date and starting not before the horizon,
+ * with the same filtering and paging as the database query.
+ * Changes are applied to the copy as they happen; a periodic check compares it with the database and rebuilds it
+ * when they differ. Changes made while a rebuild reads the database are logged and replayed onto the new copy.
+ */
+@Service
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class PublishedEventIndex {
+    static final Comparator<Event> EVENT_DATE_ORDER = Comparator.comparing(Event::getEventDate)
+            .thenComparingInt(Event::getId);
+
+    final EventRepository eventRepository;
+    final boolean enabled;
+    final Object lock = new Object();
+    final Object rebuildLock = new Object();
+    final Map<Integer, Event> events = new HashMap<>();
+    List<Consumer<Map<Integer, Event>>> changeLog;
+    volatile LocalDateTime horizon;
+    volatile Snapshot snapshot;
+
+    public PublishedEventIndex(EventRepository eventRepository,
+                               @Value("${events.index.enabled:false}") boolean enabled) {
+        this.eventRepository = eventRepository;
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        synchronized (rebuildLock) {
+            LocalDateTime newHorizon = LocalDateTime.now();
+            synchronized (lock) {
+                changeLog = new ArrayList<>();
+            }
+            List<Event> published;
+            try {
+                published = eventRepository.findAllPublishedWithEventDateFrom(newHorizon);
+            } catch (RuntimeException e) {
+                synchronized (lock) {
+                    changeLog = null;
+                }
+                throw e;
+            }
+            int replayed;
+            synchronized (lock) {
+                events.clear();
+                published.forEach(event -> events.put(event.getId(), copy(event)));
+                horizon = newHorizon;
+                changeLog.forEach(change -> change.accept(events));
+                replayed = changeLog.size();
+                changeLog = null;
+                snapshot = null;
+            }
+            log.info("Published events index rebuilt with {} events, {} changes replayed", published.size(), replayed);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${events.index.check-interval-ms:300000}",
+            fixedDelayString = "${events.index.check-interval-ms:300000}")
+    public void checkConsistency() {
+        if (!enabled || horizon == null) {
+            return;
+        }
+        List<Event> published = eventRepository.findAllPublishedWithEventDateFrom(horizon);
+        Map<Integer, Event> indexed;
+        synchronized (lock) {
+            indexed = new HashMap<>(events);
+        }
+        int differences = 0;
+        for (Event event : published) {
+            Event indexedEvent = indexed.remove(event.getId());
+            if (indexedEvent == null
+                    || !copy(event).toBuilder().views(indexedEvent.getViews()).build().equals(indexedEvent)) {
+                differences++;
+            }
+        }
+        differences += indexed.size();
+        if (differences > 0) {
+            log.warn("Published events index differs from database in {} events", differences);
+            rebuild();
+        }
+    }
+
+    public boolean canServe(String query, EventSort sort, LocalDateTime eventStart) {
+        LocalDateTime currentHorizon = horizon;
+
+        return enabled
+                && currentHorizon != null
+                && query == null
+                && sort == EventSort.EVENT_DATE
+                && eventStart != null
+                && !eventStart.isBefore(currentHorizon);
+    }
+
+    public void put(Event event) {
+        if (!enabled) {
+            return;
+        }
+        int eventId = event.getId();
+        Event published = State.PUBLISHED.equals(event.getState())
+                && event.getInitiator() != null
+                && event.getCategory() != null
+                ? copy(event)
+                : null;
+        apply(indexed -> {
+            if (published != null && !published.getEventDate().isBefore(horizon)) {
+                indexed.put(eventId, published);
+            } else {
+                indexed.remove(eventId);
+            }
+        });
+    }
+
+    public void refreshConfirmedRequests(int eventId) {
+        if (!enabled) {
+            return;
+        }
+        Integer confirmedRequest = eventRepository.findConfirmedRequestById(eventId);
+        if (confirmedRequest == null) {
+            return;
+        }
+        apply(indexed -> indexed.computeIfPresent(eventId, (id, event) -> event.toBuilder()
+                        .confirmedRequest(confirmedRequest)
+                        .build()),
+                current -> {
+                    Event event = events.get(eventId);
+                    return event == null ? current : current.withEvent(event);
+                });
+    }
+
+    public List<Event> search(List<Integer> categories,
+                              Boolean paid,
+                              LocalDateTime eventStart,
+                              LocalDateTime eventEnd,
+                              Boolean onlyAvailable,
+                              EventDateCursor after,
+                              int from,
+                              int size) {
+        Snapshot current = snapshot();
+        int start = current.firstAfter(eventStart, Integer.MIN_VALUE);
+        if (after != null) {
+            start = Math.max(start, current.firstAfter(after.getEventDate(), after.getId()));
+        }
+        int end = eventEnd == null ? current.events.length : current.firstAfter(eventEnd, Integer.MAX_VALUE);
+
+        BitSet matches = new BitSet(current.events.length);
+        if (start < end) {
+            matches.set(start, end);
+        }
+        if (categories != null) {
+            BitSet inCategories = new BitSet(current.events.length);
+            categories.stream()
+                    .map(current.byCategory::get)
+                    .filter(Objects::nonNull)
+                    .forEach(inCategories::or);
+            matches.and(inCategories);
+        }
+        if (paid != null) {
+            matches.and(paid ? current.paid : current.free);
+        }
+        if (!Boolean.FALSE.equals(onlyAvailable)) {
+            matches.and(current.available);
+        }
+
+        int skip = after == null ? (from / size) * size : 0;
+        List<Event> page = new ArrayList<>(size);
+        for (int i = matches.nextSetBit(0); i >= 0 && page.size() < size; i = matches.nextSetBit(i + 1)) {
+            if (skip > 0) {
+                skip--;
+            } else {
+                page.add(current.events[i]);
+            }
+        }
+
+        return page;
+    }
+
+    /**
+     * Applies the change to the copy, and logs it for replay if a rebuild is reading the database.
+     * The snapshot is dropped and rebuilt on the next search.
+     */
+    private void apply(Consumer<Map<Integer, Event>> change) {
+        apply(change, current -> null);
+    }
+
+    /**
+     * Applies the change to the copy and replaces the snapshot with the result of snapshotChange,
+     * for changes that keep the order of the events.
+     */
+    private void apply(Consumer<Map<Integer, Event>> change, UnaryOperator<Snapshot> snapshotChange) {
+        synchronized (lock) {
+            if (changeLog != null) {
+                changeLog.add(change);
+            }
+            if (horizon != null) {
+                change.accept(events);
+                if (snapshot != null) {
+                    snapshot = snapshotChange.apply(snapshot);
+                }
+            }
+        }
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (lock) {
+            if (snapshot == null) {
+                snapshot = Snapshot.of(events.values());
+            }
+
+            return snapshot;
+        }
+    }
+
+    private Event copy(Event event) {
+        return event.toBuilder()
+                .initiator(event.getInitiator().toBuilder().build())
+                .category(event.getCategory().toBuilder().build())
+                .location(event.getLocation() == null ? null : event.getLocation().toBuilder().build())
+                .build();
+    }
+
+    @AllArgsConstructor
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    private static class Snapshot {
+        Event[] events;
+        Map<Integer, BitSet> byCategory;
+        BitSet paid;
+        BitSet free;
+        BitSet available;
+
+        static Snapshot of(Iterable<Event> indexed) {
+            List<Event> sorted = new ArrayList<>();
+            indexed.forEach(sorted::add);
+            sorted.sort(EVENT_DATE_ORDER);
+            Event[] events = sorted.toArray(new Event[0]);
+            Map<Integer, BitSet> byCategory = new HashMap<>();
+            BitSet paid = new BitSet(events.length);
+            BitSet free = new BitSet(events.length);
+            BitSet available = new BitSet(events.length);
+            for (int i = 0; i < events.length; i++) {
+                Event event = events[i];
+                byCategory.computeIfAbsent(event.getCategory().getId(), id -> new BitSet(events.length)).set(i);
+                if (Boolean.TRUE.equals(event.getPaid())) {
+                    paid.set(i);
+                } else if (Boolean.FALSE.equals(event.getPaid())) {
+                    free.set(i);
+                }
+                available.set(i, isAvailable(event));
+            }
+
+            return new Snapshot(events, byCategory, paid, free, available);
+        }
+
+        /**
+         * Copy of the snapshot with the event replaced at its position, or null if the event is not there.
+         * Only the event array and the availability bits are copied; the event date must be unchanged.
+         */
+        Snapshot withEvent(Event event) {
+            int index = firstAfter(event.getEventDate(), event.getId() - 1);
+            if (index == events.length || events[index].getId() != event.getId()) {
+                return null;
+            }
+            Event[] changedEvents = events.clone();
+            changedEvents[index] = event;
+            BitSet changedAvailable = (BitSet) available.clone();
+            changedAvailable.set(index, isAvailable(event));
+
+            return new Snapshot(changedEvents, byCategory, paid, free, changedAvailable);
+        }
+
+        private static boolean isAvailable(Event event) {
+            return event.getParticipantLimit() != null && event.getConfirmedRequest() < event.getParticipantLimit();
+        }
+
+        /**
+         * Index of the first event ordered after (eventDate, id), or the number of events if there is none.
+         */
+        int firstAfter(LocalDateTime eventDate, int id) {
+            int low = 0;
+            int high = events.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                int compared = events[middle].getEventDate().compareTo(eventDate);
+                if (compared < 0 || compared == 0 && events[middle].getId() <= id) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+
+            return low;
+        }
+    }
+}
@@ -31,20 +31,18 @@ public class UserService {
                         "User with id= " + id + " was not found"));
     }
 
-    public List<User> findAllById(List<Integer> ids, int from, int size) {
-        Pageable pageable = PageRequest.of(from / size, size);
+    public List<User> findAllById(List<Integer> ids, Integer after, int from, int size) {
+        Pageable pageable = after == null ? PageRequest.of(from / size, size) : PageRequest.of(0, size);
 
         return userRepository
-                .findByIdInOrderByIdDesc(ids, pageable)
-                .getContent();
+                .findByIdInAndIdLessThanOrderByIdDesc(ids, after == null ? Integer.MAX_VALUE : after, pageable);
     }
 
-    public List<User> findAll(int from, int size) {
-        Pageable pageable = PageRequest.of(from / size, size);
+    public List<User> findAll(Integer after, int from, int size) {
+        Pageable pageable = after == null ? PageRequest.of(from / size, size) : PageRequest.of(0, size);
 
         return userRepository
-                .findAll(pageable)
-                .getContent();
+                .findByIdGreaterThanOrderByIdAsc(after == null ? 0 : after, pageable);
     }
 
     public void delete(int id) {
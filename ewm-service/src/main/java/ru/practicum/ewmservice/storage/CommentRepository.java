@@ -1,6 +1,5 @@
 package ru.practicum.ewmservice.storage;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -17,7 +16,7 @@ public interface CommentRepository extends JpaRepository<Comment, Integer> {
 
     Optional<Comment> findByUserIdAndEventId(int userId, int eventId);
 
-    Page<Comment> findAllByUserId(int userId, Pageable pageable);
+    List<Comment> findAllByUserIdAndIdGreaterThanOrderByIdAsc(int userId, int afterId, Pageable pageable);
 
     @Query("SELECT c FROM Comment AS c " +
             "JOIN c.user AS u " +
@@ -26,17 +25,24 @@ public interface CommentRepository extends JpaRepository<Comment, Integer> {
             "AND (:events IS NULL OR e.id IN :events) " +
             "AND (:approved IS NULL OR c.isApproved IN :approved) " +
             "AND (CAST(:start AS timestamp) IS NULL OR c.publishedOn >= :start) " +
-            "AND (CAST(:end AS timestamp) IS NULL OR c.publishedOn <= :end)")
-    Page<Comment> getAllByUsersAndEventsAndApprovedAndPublishedOn(
+            "AND (CAST(:end AS timestamp) IS NULL OR c.publishedOn <= :end) " +
+            "AND c.id > :afterId " +
+            "ORDER BY c.id ASC")
+    List<Comment> getAllByUsersAndEventsAndApprovedAndPublishedOn(
             @Param("users") List<Integer> userIds,
             @Param("events") List<Integer> eventIds,
             @Param("approved") boolean isApproved,
             @Param("start") LocalDateTime commentCreatedStart,
             @Param("end") LocalDateTime commentCreatedEnd,
+            @Param("afterId") int afterId,
             Pageable pageable);
 
     @Query("SELECT c FROM Comment AS c " +
             "JOIN c.event AS e " +
-            "WHERE e.id = :event")
-    Page<Comment> getALlByEventIdAndApproved(@Param("event") int eventId, Pageable pageable);
+            "WHERE e.id = :event " +
+            "AND c.id > :afterId " +
+            "ORDER BY c.id ASC")
+    List<Comment> getALlByEventIdAndApproved(@Param("event") int eventId,
+                                             @Param("afterId") int afterId,
+                                             Pageable pageable);
 }
@@ -1,13 +1,25 @@
 package ru.practicum.ewmservice.storage;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.practicum.ewmservice.model.Compilation;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface CompilationRepository extends JpaRepository<Compilation, Integer> {
 
-    Page<Compilation> findAllByPinnedEquals(Boolean pinned, Pageable pageable);
+    @Query("SELECT c.id " +
+            "FROM Compilation AS c " +
+            "WHERE (:pinned IS NULL OR c.pinned = :pinned) " +
+            "ORDER BY c.id ASC")
+    List<Integer> findIdsByPinned(@Param("pinned") Boolean pinned, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"events", "events.initiator", "events.category", "events.location"})
+    List<Compilation> findDistinctByIdInOrderByIdAsc(Collection<Integer> ids);
 }
@@ -1,6 +1,5 @@
 package ru.practicum.ewmservice.storage;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -14,49 +13,84 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface EventRepository extends JpaRepository<Event, Integer> {
+public interface EventRepository extends JpaRepository<Event, Integer>, EventViewsRepository {
     @Query("SELECT e " +
             "FROM Event AS e " +
-            "JOIN e.initiator AS u " +
-            "JOIN e.category AS c " +
-            "WHERE u.id = ?1")
-    Page<Event> findAllByInitiatorId(int userId, Pageable pageable);
+            "JOIN FETCH e.initiator AS u " +
+            "JOIN FETCH e.category AS c " +
+            "LEFT JOIN FETCH e.location " +
+            "WHERE u.id = ?1 " +
+            "AND e.id > ?2 " +
+            "ORDER BY e.id ASC")
+    List<Event> findAllByInitiatorIdAndIdAfter(int userId, int afterId, Pageable pageable);
 
     Optional<Event> findByIdAndInitiatorId(int eventId, int userId);
 
     @Query("SELECT e FROM Event AS e " +
-            "JOIN e.initiator AS u " +
-            "JOIN e.category AS c " +
+            "JOIN FETCH e.initiator AS u " +
+            "JOIN FETCH e.category AS c " +
+            "LEFT JOIN FETCH e.location " +
             "WHERE (:users IS NULL OR u.id IN :users) " +
             "AND (:eventStates IS NULL OR e.state IN :eventStates)" +
             "AND (:categories IS NULL OR c.id IN :categories) " +
             "AND (CAST(:eventStart AS timestamp) IS NULL OR e.eventDate >= :eventStart) " +
-            "AND (CAST(:eventEnd AS timestamp) IS NULL OR e.eventDate <= :eventEnd)")
-    Page<Event> findAllByInitiatorIdAndStateAndCategoriesAndEventDate(
+            "AND (CAST(:eventEnd AS timestamp) IS NULL OR e.eventDate <= :eventEnd) " +
+            "AND e.id > :afterId " +
+            "ORDER BY e.id ASC")
+    List<Event> findAllByInitiatorIdAndStateAndCategoriesAndEventDate(
             @Param("users") List<Integer> users,
             @Param("eventStates") List<State> eventStates,
             @Param("categories") List<Integer> categories,
             @Param("eventStart") LocalDateTime eventStart,
             @Param("eventEnd") LocalDateTime eventEnd,
+            @Param("afterId") int afterId,
             Pageable pageable
             );
 
-    @Query("SELECT e " +
+    String SEARCH_PUBLISHED_EVENTS = "SELECT e " +
             "FROM Event AS e " +
-            "JOIN e.initiator AS u " +
-            "JOIN e.category AS c " +
+            "JOIN FETCH e.initiator AS u " +
+            "JOIN FETCH e.category AS c " +
+            "LEFT JOIN FETCH e.location " +
             "WHERE e.state = 'PUBLISHED' " +
-            "  AND (:text IS NULL " +
-            "OR (" +
-            "UPPER(e.description) LIKE UPPER(CONCAT('%', :text, '%')) " +
-            "OR UPPER(e.annotation) LIKE UPPER(CONCAT('%', :text, '%')))) " +
+            "AND (:text IS NULL OR fts_match(e.id, :text) = true) " +
             "AND (:paid IS NULL OR e.paid = :paid) " +
             "AND (:onlyAvailable IS FALSE OR e.confirmedRequest < e.participantLimit) " +
             "AND (:categories IS NULL OR c.id IN :categories) " +
             "AND (CAST(:rangeStart AS timestamp) IS NULL OR e.eventDate >= :rangeStart) " +
-            "AND (CAST(:rangeEnd AS timestamp) IS NULL OR e.eventDate <= :rangeEnd) " +
-            "ORDER BY e.eventDate ASC")
-    Page<Event> searchPublishedEventsOrderByEventDateAsc(
+            "AND (CAST(:rangeEnd AS timestamp) IS NULL OR e.eventDate <= :rangeEnd) ";
+
+    @Query(SEARCH_PUBLISHED_EVENTS +
+            "AND (CAST(:afterEventDate AS timestamp) IS NULL " +
+            "OR (e.eventDate, e.id) > (:afterEventDate, :afterId)) " +
+            "ORDER BY e.eventDate ASC, e.id ASC")
+    List<Event> searchPublishedEventsOrderByEventDateAsc(
+            @Param("text") String text,
+            @Param("categories") List<Integer> categories,
+            @Param("paid") Boolean paid,
+            @Param("rangeStart") LocalDateTime rangeStart,
+            @Param("rangeEnd") LocalDateTime rangeEnd,
+            @Param("onlyAvailable") Boolean onlyAvailable,
+            @Param("afterEventDate") LocalDateTime afterEventDate,
+            @Param("afterId") Integer afterId,
+            Pageable pageable
+    );
+
+    @Query(SEARCH_PUBLISHED_EVENTS +
+            "ORDER BY e.views DESC, e.id ASC")
+    List<Event> searchPublishedEventsOrderByViewsDesc(
+            @Param("text") String text,
+            @Param("categories") List<Integer> categories,
+            @Param("paid") Boolean paid,
+            @Param("rangeStart") LocalDateTime rangeStart,
+            @Param("rangeEnd") LocalDateTime rangeEnd,
+            @Param("onlyAvailable") Boolean onlyAvailable,
+            Pageable pageable
+    );
+
+    @Query(SEARCH_PUBLISHED_EVENTS +
+            "ORDER BY fts_rank(e.id, :text) DESC, e.eventDate ASC, e.id ASC")
+    List<Event> searchPublishedEventsOrderByRelevance(
             @Param("text") String text,
             @Param("categories") List<Integer> categories,
             @Param("paid") Boolean paid,
@@ -67,4 +101,41 @@ public interface EventRepository extends JpaRepository<Event, Integer> {
     );
 
     Optional<Event> findByIdAndStateEquals(int id, State state);
+
+    @Query("SELECT e " +
+            "FROM Event AS e " +
+            "JOIN FETCH e.initiator " +
+            "JOIN FETCH e.category " +
+            "LEFT JOIN FETCH e.location " +
+            "WHERE e.id IN :eventIds")
+    List<Event> findAllWithRelationsByIdIn(@Param("eventIds") List<Integer> eventIds);
+
+    @Query("SELECT e " +
+            "FROM Event AS e " +
+            "JOIN FETCH e.initiator " +
+            "JOIN FETCH e.category " +
+            "LEFT JOIN FETCH e.location " +
+            "WHERE e.state = 'PUBLISHED' " +
+            "AND e.eventDate >= :eventStart")
+    List<Event> findAllPublishedWithEventDateFrom(@Param("eventStart") LocalDateTime eventStart);
+
+    @Query(value = "SELECT confirmed_request FROM events WHERE event_id = :eventId", nativeQuery = true)
+    Integer findConfirmedRequestById(@Param("eventId") int eventId);
+
+    @Query(value = "SELECT event_id FROM events " +
+            "WHERE event_id = :eventId AND confirmed_request < participant_limit " +
+            "FOR UPDATE", nativeQuery = true)
+    Integer lockIfHasFreeSlots(@Param("eventId") int eventId);
+
+    @Query(value = "SELECT participant_limit - confirmed_request FROM events " +
+            "WHERE event_id = :eventId " +
+            "FOR UPDATE", nativeQuery = true)
+    Integer lockAndGetFreeSlots(@Param("eventId") int eventId);
+
+    @Query("SELECT e.id " +
+            "FROM Event AS e " +
+            "WHERE e.state = 'PUBLISHED' " +
+            "AND e.id > :afterId " +
+            "ORDER BY e.id ASC")
+    List<Integer> findPublishedIds(@Param("afterId") int afterId, Pageable pageable);
 }
\ No newline at end of file
@@ -0,0 +1,8 @@
+package ru.practicum.ewmservice.storage;
+
+import java.util.Map;
+
+public interface EventViewsRepository {
+
+    int updateViews(Map<Integer, Integer> viewsByEventId);
+}
@@ -0,0 +1,35 @@
+package ru.practicum.ewmservice.storage;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class EventViewsRepositoryImpl implements EventViewsRepository {
+
+    final JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public int updateViews(Map<Integer, Integer> viewsByEventId) {
+        List<Object[]> args = viewsByEventId.entrySet().stream()
+                .map(entry -> new Object[]{entry.getValue(), entry.getKey(), entry.getValue()})
+                .collect(Collectors.toList());
+        int[] updated = jdbcTemplate.batchUpdate("UPDATE events SET views = ? " +
+                "WHERE event_id = ? AND views IS DISTINCT FROM ?", args);
+
+        int total = 0;
+        for (int count : updated) {
+            total += Math.max(count, 0);
+        }
+
+        return total;
+    }
+}
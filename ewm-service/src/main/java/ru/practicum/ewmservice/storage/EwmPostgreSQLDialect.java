@@ -0,0 +1,63 @@
+package ru.practicum.ewmservice.storage;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.hibernate.QueryException;
+import org.hibernate.dialect.PostgreSQL10Dialect;
+import org.hibernate.dialect.function.SQLFunction;
+import org.hibernate.engine.spi.Mapping;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.type.StandardBasicTypes;
+import org.hibernate.type.Type;
+
+import java.util.List;
+
+/**
+ * Adds full-text search over events.search_vector: fts_match(e.id, query) and fts_rank(e.id, query).
+ * The column is not mapped on Event so that it is never loaded, so the functions take the event id
+ * only to find the table alias of the event in the generated SQL.
+ */
+public class EwmPostgreSQLDialect extends PostgreSQL10Dialect {
+
+    public EwmPostgreSQLDialect() {
+        super();
+        registerFunction("fts_match", new SearchVectorFunction(StandardBasicTypes.BOOLEAN,
+                "%1$ssearch_vector @@ to_tsquery('simple', %2$s)"));
+        registerFunction("fts_rank", new SearchVectorFunction(StandardBasicTypes.FLOAT,
+                "ts_rank_cd(%1$ssearch_vector, to_tsquery('simple', %2$s))"));
+    }
+
+    @AllArgsConstructor
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    private static class SearchVectorFunction implements SQLFunction {
+        Type returnType;
+        String format;
+
+        @Override
+        public boolean hasArguments() {
+            return true;
+        }
+
+        @Override
+        public boolean hasParenthesesIfNoArguments() {
+            return true;
+        }
+
+        @Override
+        public Type getReturnType(Type firstArgumentType, Mapping mapping) throws QueryException {
+            return returnType;
+        }
+
+        @Override
+        public String render(Type firstArgumentType, List arguments, SessionFactoryImplementor factory)
+                throws QueryException {
+            if (arguments.size() != 2) {
+                throw new QueryException("full-text functions take an event id and a query");
+            }
+            String idColumn = arguments.get(0).toString();
+
+            return String.format(format, idColumn.substring(0, idColumn.lastIndexOf('.') + 1), arguments.get(1));
+        }
+    }
+}
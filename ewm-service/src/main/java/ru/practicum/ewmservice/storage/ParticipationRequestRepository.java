@@ -5,27 +5,37 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.practicum.ewmservice.model.ParticipationRequest;
-import ru.practicum.ewmservice.model.ParticipationRequestState;
 
 import java.util.List;
 
 @Repository
-public interface ParticipationRequestRepository extends JpaRepository<ParticipationRequest, Integer> {
+public interface ParticipationRequestRepository extends JpaRepository<ParticipationRequest, Integer>,
+        ParticipationRequestStatusRepository {
     List<ParticipationRequest> findAllByRequesterId(int requesterId);
 
     @Query("SELECT r " +
             "FROM ParticipationRequest AS r " +
             "JOIN r.event AS e " +
             "JOIN e.initiator AS u " +
-            "WHERE (:requestIds IS NULL OR r.id IN :requestIds) " +
+            "WHERE e.id = :eventId " +
+            "  AND u.id = :initiatorId "
+    )
+    List<ParticipationRequest> findAllWhereEventIdEqualsAndInitiatorIdEquals(
+            @Param("eventId") int eventId,
+            @Param("initiatorId") int initiatorId
+    );
+
+    @Query("SELECT r " +
+            "FROM ParticipationRequest AS r " +
+            "JOIN r.event AS e " +
+            "JOIN e.initiator AS u " +
+            "WHERE r.id IN :requestIds " +
             "  AND e.id = :eventId " +
-            "  AND u.id = :initiatorId " +
-            "  AND (:status IS NULL OR r.status = :status) "
+            "  AND u.id = :initiatorId "
     )
-    List<ParticipationRequest> findAllWhereRequestIdInAndEventIdEqualsAndInitiatorIdEqualsAndStatusEquals(
+    List<ParticipationRequest> findAllWhereRequestIdInAndEventIdEqualsAndInitiatorIdEquals(
             @Param("requestIds") List<Integer> requestIds,
             @Param("eventId") int eventId,
-            @Param("initiatorId") int initiatorId,
-            @Param("status") ParticipationRequestState status
+            @Param("initiatorId") int initiatorId
     );
 }
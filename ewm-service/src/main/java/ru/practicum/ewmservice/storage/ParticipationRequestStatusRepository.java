@@ -0,0 +1,19 @@
+package ru.practicum.ewmservice.storage;
+
+import ru.practicum.ewmservice.model.ParticipationRequest;
+import ru.practicum.ewmservice.model.ParticipationRequestState;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public interface ParticipationRequestStatusRepository {
+
+    Map<ParticipationRequestState, Integer> countByStatus(int eventId, List<Integer> requestIds);
+
+    List<ParticipationRequest> updatePendingStatus(int eventId,
+                                                   List<Integer> requestIds,
+                                                   ParticipationRequestState status);
+
+    Optional<ParticipationRequest> promoteFirstWaiting(int eventId, ParticipationRequestState status);
+}
@@ -0,0 +1,90 @@
+package ru.practicum.ewmservice.storage;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import ru.practicum.ewmservice.model.Event;
+import ru.practicum.ewmservice.model.ParticipationRequest;
+import ru.practicum.ewmservice.model.ParticipationRequestState;
+import ru.practicum.ewmservice.model.User;
+
+import java.sql.PreparedStatement;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ParticipationRequestStatusRepositoryImpl implements ParticipationRequestStatusRepository {
+    static final String COUNT_BY_STATUS_SQL = "SELECT status, COUNT(*) AS requests " +
+            "FROM participation_request " +
+            "WHERE event_id = ? AND (CAST(? AS int[]) IS NULL OR participation_request_id = ANY(?)) " +
+            "GROUP BY status";
+    static final String UPDATE_PENDING_STATUS_SQL = "UPDATE participation_request SET status = ? " +
+            "WHERE event_id = ? AND status = 'PENDING' " +
+            "AND (CAST(? AS int[]) IS NULL OR participation_request_id = ANY(?)) " +
+            "RETURNING participation_request_id, created, status, event_id, requester";
+    static final String PROMOTE_FIRST_WAITING_SQL = "UPDATE participation_request SET status = ? " +
+            "WHERE participation_request_id = (" +
+            "    SELECT participation_request_id FROM participation_request " +
+            "    WHERE event_id = ? AND status = 'WAITING' " +
+            "    ORDER BY participation_request_id LIMIT 1) " +
+            "RETURNING participation_request_id, created, status, event_id, requester";
+
+    static final RowMapper<ParticipationRequest> PARTICIPATION_REQUEST_ROW_MAPPER = (rs, rowNum) ->
+            ParticipationRequest.builder()
+                    .id(rs.getInt("participation_request_id"))
+                    .createdOn(rs.getTimestamp("created").toLocalDateTime())
+                    .status(ParticipationRequestState.valueOf(rs.getString("status")))
+                    .event(Event.builder().id(rs.getInt("event_id")).build())
+                    .requester(User.builder().id(rs.getInt("requester")).build())
+                    .build();
+
+    final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public Map<ParticipationRequestState, Integer> countByStatus(int eventId, List<Integer> requestIds) {
+        Map<ParticipationRequestState, Integer> counts = new EnumMap<>(ParticipationRequestState.class);
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(COUNT_BY_STATUS_SQL);
+            Object[] ids = requestIds == null ? null : requestIds.toArray();
+            ps.setInt(1, eventId);
+            ps.setArray(2, ids == null ? null : con.createArrayOf("integer", ids));
+            ps.setArray(3, ids == null ? null : con.createArrayOf("integer", ids));
+            return ps;
+        }, rs -> {
+            counts.put(ParticipationRequestState.valueOf(rs.getString("status")), rs.getInt("requests"));
+        });
+
+        return counts;
+    }
+
+    @Override
+    public List<ParticipationRequest> updatePendingStatus(int eventId,
+                                                          List<Integer> requestIds,
+                                                          ParticipationRequestState status) {
+        List<ParticipationRequest> updated = jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(UPDATE_PENDING_STATUS_SQL);
+            Object[] ids = requestIds == null ? null : requestIds.toArray();
+            ps.setString(1, status.name());
+            ps.setInt(2, eventId);
+            ps.setArray(3, ids == null ? null : con.createArrayOf("integer", ids));
+            ps.setArray(4, ids == null ? null : con.createArrayOf("integer", ids));
+            return ps;
+        }, PARTICIPATION_REQUEST_ROW_MAPPER);
+        updated.sort(Comparator.comparing(ParticipationRequest::getId));
+
+        return updated;
+    }
+
+    @Override
+    public Optional<ParticipationRequest> promoteFirstWaiting(int eventId, ParticipationRequestState status) {
+        return jdbcTemplate.query(PROMOTE_FIRST_WAITING_SQL, PARTICIPATION_REQUEST_ROW_MAPPER, status.name(), eventId)
+                .stream()
+                .findFirst();
+    }
+}
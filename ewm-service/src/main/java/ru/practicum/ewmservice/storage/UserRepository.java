@@ -1,6 +1,5 @@
 package ru.practicum.ewmservice.storage;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import ru.practicum.ewmservice.model.User;
@@ -8,5 +7,7 @@ import ru.practicum.ewmservice.model.User;
 import java.util.List;
 
 public interface UserRepository extends JpaRepository<User, Integer> {
-    Page<User> findByIdInOrderByIdDesc(List<Integer> userIds, Pageable pageable);
+    List<User> findByIdInAndIdLessThanOrderByIdDesc(List<Integer> userIds, int beforeId, Pageable pageable);
+
+    List<User> findByIdGreaterThanOrderByIdAsc(int afterId, Pageable pageable);
 }
@@ -0,0 +1,29 @@
+package ru.practicum.ewmservice.util;
+
+import lombok.NonNull;
+import lombok.Value;
+
+import javax.validation.ValidationException;
+import java.time.LocalDateTime;
+
+/**
+ * Position after the last event of a page ordered by event date and id, given as "yyyy-MM-dd HH:mm:ss,id".
+ */
+@Value
+public class EventDateCursor {
+    LocalDateTime eventDate;
+    int id;
+
+    public static EventDateCursor parse(@NonNull final String after) throws ValidationException {
+        int delimiter = after.lastIndexOf(',');
+        if (delimiter < 0) {
+            throw new ValidationException("after must be in format 'eventDate,id': " + after);
+        }
+        try {
+            return new EventDateCursor(DateTimeUtils.parse(after.substring(0, delimiter).trim()),
+                    Integer.parseInt(after.substring(delimiter + 1).trim()));
+        } catch (final NumberFormatException e) {
+            throw new ValidationException(e.getMessage(), e);
+        }
+    }
+}
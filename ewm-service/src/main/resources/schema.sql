@@ -33,7 +33,7 @@ CREATE TABLE IF NOT EXISTS categories (
 CREATE TABLE IF NOT EXISTS "events" (
     event_id            serial, --идентификатор
     category_id         int, --категория fk to categories
-    confirmed_request   int, --количество одобренных заявок
+    confirmed_request   int DEFAULT 0, --количество одобренных заявок
     created             timestamp without time zone, --дата и время создания заявки
     description         varchar(7000), --полное описание
     annotation          varchar(2000), --краткое описание
@@ -46,7 +46,13 @@ CREATE TABLE IF NOT EXISTS "events" (
     request_moderation  boolean DEFAULT true, --пре-модерация заявок
     state               varchar(20), --состояние
     title               varchar(120), --заголовок
+    waitlist            boolean DEFAULT false, --заявки сверх лимита встают в лист ожидания
     views               int DEFAULT 0, --просмотры
+    search_vector       tsvector GENERATED ALWAYS AS (
+        setweight(to_tsvector('simple', coalesce(title, '')), 'A')
+        || setweight(to_tsvector('simple', coalesce(annotation, '')), 'B')
+        || setweight(to_tsvector('simple', coalesce(description, '')), 'C')
+    ) STORED, --поисковый вектор по заголовку, аннотации и описанию
     CONSTRAINT pk_events PRIMARY KEY (event_id),
     CONSTRAINT fk_events_category_id FOREIGN KEY (category_id) REFERENCES categories (category_id),
     CONSTRAINT fk_events_initiator FOREIGN KEY (initiator) REFERENCES users (user_id),
@@ -54,6 +60,11 @@ CREATE TABLE IF NOT EXISTS "events" (
     CHECK (confirmed_request <= events.participant_limit)
 );
 
+CREATE INDEX IF NOT EXISTS ix_events_search_vector ON "events" USING GIN (search_vector);
+CREATE INDEX IF NOT EXISTS ix_events_initiator_id ON "events" (initiator, event_id);
+CREATE INDEX IF NOT EXISTS ix_events_state_event_date_id ON "events" (state, event_date, event_id);
+CREATE INDEX IF NOT EXISTS ix_events_state_views_id ON "events" (state, views DESC, event_id);
+
 CREATE TABLE IF NOT EXISTS compilations (
     compilation_id  serial, --идентификатор
     pinned          boolean, --запись закреплена
@@ -82,6 +93,17 @@ CREATE TABLE IF NOT EXISTS participation_request (
     CONSTRAINT fk_participation_request_requester FOREIGN KEY (requester) REFERENCES users (user_id)
 );
 
+ALTER SEQUENCE locations_location_id_seq INCREMENT BY 50;
+ALTER SEQUENCE users_user_id_seq INCREMENT BY 50;
+ALTER SEQUENCE categories_category_id_seq INCREMENT BY 50;
+ALTER SEQUENCE events_event_id_seq INCREMENT BY 50;
+ALTER SEQUENCE compilations_compilation_id_seq INCREMENT BY 50;
+ALTER SEQUENCE events_to_compilations_id_seq INCREMENT BY 50;
+ALTER SEQUENCE participation_request_participation_request_id_seq INCREMENT BY 50;
+
+CREATE INDEX IF NOT EXISTS ix_participation_request_waiting
+    ON participation_request (event_id, participation_request_id) WHERE status = 'WAITING';
+
 CREATE TABLE IF NOT EXISTS comments (
     comment_id      serial, --идентификатор
     user_id         int, --fk to users
@@ -95,34 +117,63 @@ CREATE TABLE IF NOT EXISTS comments (
     CONSTRAINT fk_comments_event_id FOREIGN KEY (event_id) REFERENCES events (event_id)
 );
 
-CREATE OR REPLACE FUNCTION calc_confirmed_request()
+ALTER SEQUENCE comments_comment_id_seq INCREMENT BY 50;
+
+CREATE INDEX IF NOT EXISTS ix_comments_user_id_id ON comments (user_id, comment_id);
+CREATE INDEX IF NOT EXISTS ix_comments_event_id_id ON comments (event_id, comment_id);
+
+DROP FUNCTION IF EXISTS calc_confirmed_request();
+
+CREATE OR REPLACE FUNCTION apply_confirmed_request_delta()
    RETURNS TRIGGER
 AS $$
-DECLARE
-	event_id_t int;
-request_count_t int;
 BEGIN
 
-  IF (TG_OP = 'DELETE') THEN
-    event_id_t = OLD.event_id;
+  IF (TG_OP = 'INSERT') THEN
+    UPDATE "events" AS e
+    SET confirmed_request = coalesce(e.confirmed_request, 0) + d.delta
+    FROM (SELECT event_id, COUNT(*) AS delta
+          FROM new_requests
+          WHERE status = 'CONFIRMED'
+          GROUP BY event_id) AS d
+    WHERE e.event_id = d.event_id;
+ELSIF (TG_OP = 'UPDATE') THEN
+    UPDATE "events" AS e
+    SET confirmed_request = coalesce(e.confirmed_request, 0) + d.delta
+    FROM (SELECT event_id, SUM(delta) AS delta
+          FROM (SELECT event_id, 1 AS delta FROM new_requests WHERE status = 'CONFIRMED'
+                UNION ALL
+                SELECT event_id, -1 AS delta FROM old_requests WHERE status = 'CONFIRMED') AS changes
+          GROUP BY event_id
+          HAVING SUM(delta) <> 0) AS d
+    WHERE e.event_id = d.event_id;
 ELSE
-    event_id_t = NEW.event_id;
+    UPDATE "events" AS e
+    SET confirmed_request = coalesce(e.confirmed_request, 0) - d.delta
+    FROM (SELECT event_id, COUNT(*) AS delta
+          FROM old_requests
+          WHERE status = 'CONFIRMED'
+          GROUP BY event_id) AS d
+    WHERE e.event_id = d.event_id;
 END IF;
-
-SELECT COUNT(*)
-FROM participation_request
-WHERE event_id=event_id_t AND status = 'CONFIRMED'
-    INTO request_count_t;
-
-UPDATE "events"
-SET confirmed_request = request_count_t
-WHERE event_id = event_id_t;
-RETURN NEW;
+RETURN NULL;
 END;
 $$ LANGUAGE plpgsql;
 
-CREATE OR REPLACE TRIGGER confirmed_request_trigger
-    AFTER INSERT OR UPDATE OR DELETE ON participation_request
-    FOR EACH ROW
-    EXECUTE PROCEDURE calc_confirmed_request();;
+CREATE OR REPLACE TRIGGER confirmed_request_insert_trigger
+    AFTER INSERT ON participation_request
+    REFERENCING NEW TABLE AS new_requests
+    FOR EACH STATEMENT
+    EXECUTE PROCEDURE apply_confirmed_request_delta();
+
+CREATE OR REPLACE TRIGGER confirmed_request_update_trigger
+    AFTER UPDATE ON participation_request
+    REFERENCING OLD TABLE AS old_requests NEW TABLE AS new_requests
+    FOR EACH STATEMENT
+    EXECUTE PROCEDURE apply_confirmed_request_delta();
 
+CREATE OR REPLACE TRIGGER confirmed_request_delete_trigger
+    AFTER DELETE ON participation_request
+    REFERENCING OLD TABLE AS old_requests
+    FOR EACH STATEMENT
+    EXECUTE PROCEDURE apply_confirmed_request_delta();;
@@ -0,0 +1,116 @@
+package ru.practicum.ewmservice;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import ru.practicum.ewmservice.model.State;
+import ru.practicum.statsclient.StatsClient;
+
+import javax.persistence.EntityManagerFactory;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the application on a random port against an embedded PostgreSQL started once per test run,
+ * so schema.sql, its triggers and the native queries behave as in production.
+ * stats-server is replaced by a mock that knows no views.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public abstract class IntegrationTest {
+    static final EmbeddedPostgres POSTGRES = startPostgres();
+
+    @Autowired
+    protected TestRestTemplate rest;
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+    @MockBean
+    protected StatsClient statsClient;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> POSTGRES.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+    }
+
+    @BeforeEach
+    void stubStatsServer() {
+        when(statsClient.getViewsAsync(any(), any(), anyList(), anyBoolean()))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(Map.of()));
+    }
+
+    protected Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        return statistics;
+    }
+
+    protected int insertUser() {
+        String name = "user-" + UUID.randomUUID();
+
+        return jdbcTemplate.queryForObject("INSERT INTO users (name, email) VALUES (?, ?) RETURNING user_id",
+                Integer.class, name, name + "@mail.test");
+    }
+
+    protected int insertCategory() {
+        return jdbcTemplate.queryForObject("INSERT INTO categories (name) VALUES (?) RETURNING category_id",
+                Integer.class, UUID.randomUUID().toString().substring(0, 25));
+    }
+
+    protected int insertEvent(int initiatorId, State state, int participantLimit, boolean requestModeration) {
+        return insertEvent(initiatorId, insertCategory(), state, participantLimit, requestModeration);
+    }
+
+    protected int insertEvent(int initiatorId, int categoryId, State state, int participantLimit,
+                              boolean requestModeration) {
+        int locationId = jdbcTemplate.queryForObject("INSERT INTO locations (lat, lon) VALUES (55.75, 37.61) " +
+                "RETURNING location_id", Integer.class);
+        LocalDateTime now = LocalDateTime.now();
+
+        return jdbcTemplate.queryForObject("INSERT INTO events (category_id, created, description, annotation, " +
+                        "event_date, initiator, location, paid, participant_limit, published_on, request_moderation, " +
+                        "state, title) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?, false, ?, ?, ?, ?, ?) RETURNING event_id",
+                Integer.class,
+                categoryId,
+                Timestamp.valueOf(now),
+                "Integration test event description",
+                "Integration test event annotation",
+                Timestamp.valueOf(now.plusDays(10)),
+                initiatorId,
+                locationId,
+                participantLimit,
+                state == State.PUBLISHED ? Timestamp.valueOf(now) : null,
+                requestModeration,
+                state.name(),
+                "Integration test event");
+    }
+
+    private static EmbeddedPostgres startPostgres() {
+        try {
+            return EmbeddedPostgres.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
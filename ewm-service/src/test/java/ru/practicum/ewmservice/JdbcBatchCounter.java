@@ -0,0 +1,21 @@
+package ru.practicum.ewmservice;
+
+import org.hibernate.BaseSessionEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts JDBC batches executed by all sessions; Hibernate statistics only count prepared statements.
+ */
+public class JdbcBatchCounter extends BaseSessionEventListener {
+    static final AtomicLong BATCHES = new AtomicLong();
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        BATCHES.incrementAndGet();
+    }
+
+    public static long reset() {
+        return BATCHES.getAndSet(0);
+    }
+}
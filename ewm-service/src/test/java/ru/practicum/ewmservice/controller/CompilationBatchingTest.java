@@ -0,0 +1,90 @@
+package ru.practicum.ewmservice.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import ru.practicum.ewmservice.IntegrationTest;
+import ru.practicum.ewmservice.JdbcBatchCounter;
+import ru.practicum.ewmservice.model.State;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compilation links are written in JDBC batches of 50 with pooled ids, so the number of statements
+ * does not grow with the number of events.
+ */
+class CompilationBatchingTest extends IntegrationTest {
+    static final int EVENTS = 120;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    List<Integer> eventIds;
+
+    @BeforeEach
+    void createEvents() {
+        int initiatorId = insertUser();
+        eventIds = new ArrayList<>();
+        for (int i = 0; i < 2 * EVENTS; i++) {
+            eventIds.add(insertEvent(initiatorId, State.PUBLISHED, 0, false));
+        }
+    }
+
+    @Test
+    void createWritesLinksInBatches() {
+        Statistics statistics = statistics();
+        JdbcBatchCounter.reset();
+
+        create(eventIds.subList(0, EVENTS));
+
+        // events, compilation insert and link insert, plus nextval when the pooled block of ids is used up
+        assertThat(statistics.getPrepareStatementCount()).isBetween(3L, 4L);
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(1);
+        // the compilation, then 120 links in batches of 50
+        assertThat(JdbcBatchCounter.reset()).isEqualTo(4);
+    }
+
+    @Test
+    void updateSwapsLinksInBatches() throws Exception {
+        int compId = create(eventIds.subList(0, EVENTS));
+        Statistics statistics = statistics();
+        JdbcBatchCounter.reset();
+
+        HttpResponse<String> response = HttpClient.newHttpClient().send(HttpRequest.newBuilder(
+                        URI.create(rest.getRootUri() + "/admin/compilations/" + compId))
+                .header("Content-Type", "application/json")
+                .method("PATCH", HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(
+                        Map.of("events", eventIds.subList(EVENTS / 2, EVENTS + EVENTS / 2)))))
+                .build(), HttpResponse.BodyHandlers.ofString());
+
+        assertThat(response.statusCode()).isEqualTo(HttpStatus.OK.value());
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(EVENTS / 2);
+        assertThat(statistics.getEntityDeleteCount()).isEqualTo(EVENTS / 2);
+        // up to two of them are nextval calls for the 60 pooled link ids
+        assertThat(statistics.getPrepareStatementCount()).isBetween(7L, 9L);
+        // 60 inserted and 60 deleted links in batches of 50, then the compilation
+        assertThat(JdbcBatchCounter.reset()).isEqualTo(5);
+    }
+
+    private int create(List<Integer> events) {
+        ResponseEntity<Map> created = rest.postForEntity("/admin/compilations", Map.of(
+                "title", "Batched compilation",
+                "pinned", false,
+                "events", events), Map.class);
+        assertThat(created.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+
+        return (Integer) created.getBody().get("id");
+    }
+}
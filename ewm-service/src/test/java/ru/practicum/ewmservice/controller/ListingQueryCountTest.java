@@ -0,0 +1,96 @@
+package ru.practicum.ewmservice.controller;
+
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import ru.practicum.ewmservice.IntegrationTest;
+import ru.practicum.ewmservice.dto.CompilationResponseDto;
+import ru.practicum.ewmservice.dto.EventResponseDto;
+import ru.practicum.ewmservice.model.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Guards the event and compilation listings against N+1 selects: every listing returns several rows
+ * with distinct initiators, categories or locations, and must still take a fixed number of statements.
+ */
+class ListingQueryCountTest extends IntegrationTest {
+    static final int EVENTS = 5;
+
+    int initiatorId;
+    int categoryId;
+    List<Integer> eventIds;
+
+    @BeforeEach
+    void createEvents() {
+        initiatorId = insertUser();
+        categoryId = insertCategory();
+        eventIds = new ArrayList<>();
+        for (int i = 0; i < EVENTS; i++) {
+            eventIds.add(insertEvent(insertUser(), categoryId, State.PUBLISHED, 0, false));
+        }
+        for (int i = 0; i < EVENTS; i++) {
+            eventIds.add(insertEvent(initiatorId, State.PUBLISHED, 0, false));
+        }
+    }
+
+    @Test
+    void publicEventsTakeOneStatement() {
+        EventResponseDto[] events = assertStatements("/events?categories=" + categoryId +
+                "&onlyAvailable=false&from=0&size=20", EventResponseDto[].class, EVENTS, 1);
+
+        assertThat(events).extracting(EventResponseDto::getId)
+                .containsExactlyInAnyOrderElementsOf(eventIds.subList(0, EVENTS));
+    }
+
+    @Test
+    void adminEventsTakeOneStatement() {
+        EventResponseDto[] events = assertStatements("/admin/events?users=" + initiatorId + "&from=0&size=20",
+                EventResponseDto[].class, EVENTS, 1);
+
+        assertThat(events).extracting(EventResponseDto::getId)
+                .containsExactlyInAnyOrderElementsOf(eventIds.subList(EVENTS, 2 * EVENTS));
+    }
+
+    @Test
+    void userEventsTakeOneStatement() {
+        EventResponseDto[] events = assertStatements("/users/" + initiatorId + "/events?from=0&size=20",
+                EventResponseDto[].class, EVENTS, 1);
+
+        assertThat(events).extracting(EventResponseDto::getId)
+                .containsExactlyInAnyOrderElementsOf(eventIds.subList(EVENTS, 2 * EVENTS));
+    }
+
+    @Test
+    void compilationsTakeTwoStatements() {
+        for (int i = 0; i < 3; i++) {
+            ResponseEntity<CompilationResponseDto> created = rest.postForEntity("/admin/compilations", Map.of(
+                    "title", "Compilation " + i,
+                    "pinned", false,
+                    "events", eventIds.subList(i * 3, i * 3 + 3)), CompilationResponseDto.class);
+            assertThat(created.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        }
+
+        assertStatements("/compilations?from=0&size=3", CompilationResponseDto[].class, 3, 2);
+    }
+
+    private <T> T[] assertStatements(String url, Class<T[]> type, int rows, long statements) {
+        Statistics statistics = statistics();
+
+        ResponseEntity<T[]> response = rest.getForEntity(url, type);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).hasSize(rows);
+        assertThat(statistics.getPrepareStatementCount())
+                .as("statements for GET %s", url)
+                .isEqualTo(statements);
+
+        return response.getBody();
+    }
+}
@@ -0,0 +1,69 @@
+package ru.practicum.ewmservice.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import ru.practicum.ewmservice.IntegrationTest;
+import ru.practicum.ewmservice.model.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Concurrent requests to an event without moderation must confirm exactly as many participants as its limit.
+ */
+class ParticipationRequestConcurrencyTest extends IntegrationTest {
+    static final int REQUESTS = 40;
+    static final int PARTICIPANT_LIMIT = 7;
+
+    @Test
+    void concurrentRequestsDoNotExceedLimit() throws Exception {
+        int eventId = insertEvent(insertUser(), State.PUBLISHED, PARTICIPANT_LIMIT, false);
+        List<Integer> requesterIds = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            requesterIds.add(insertUser());
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(REQUESTS);
+        List<Future<HttpStatus>> responses = new ArrayList<>();
+        try {
+            for (int requesterId : requesterIds) {
+                responses.add(executor.submit(() -> {
+                    start.await();
+                    return rest.postForEntity("/users/" + requesterId + "/requests?eventId=" + eventId,
+                            null, String.class).getStatusCode();
+                }));
+            }
+            start.countDown();
+            List<HttpStatus> statuses = new ArrayList<>();
+            for (Future<HttpStatus> response : responses) {
+                statuses.add(response.get(30, TimeUnit.SECONDS));
+            }
+
+            assertThat(statuses.stream().collect(Collectors.groupingBy(Function.identity(), Collectors.counting())))
+                    .isEqualTo(Map.of(HttpStatus.CREATED, (long) PARTICIPANT_LIMIT,
+                            HttpStatus.CONFLICT, (long) (REQUESTS - PARTICIPANT_LIMIT)));
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM participation_request " +
+                "WHERE event_id = ? AND status = 'CONFIRMED'", Integer.class, eventId))
+                .isEqualTo(PARTICIPANT_LIMIT);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM participation_request WHERE event_id = ?",
+                Integer.class, eventId))
+                .isEqualTo(PARTICIPANT_LIMIT);
+        assertThat(jdbcTemplate.queryForObject("SELECT confirmed_request FROM events WHERE event_id = ?",
+                Integer.class, eventId))
+                .isEqualTo(PARTICIPANT_LIMIT);
+    }
+}
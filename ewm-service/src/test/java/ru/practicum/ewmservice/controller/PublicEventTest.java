@@ -0,0 +1,66 @@
+package ru.practicum.ewmservice.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import ru.practicum.ewmservice.IntegrationTest;
+import ru.practicum.ewmservice.model.State;
+import ru.practicum.ewmservice.service.EventViewsService;
+import ru.practicum.statsclient.StatsClientException;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PublicEventTest extends IntegrationTest {
+    int initiatorId;
+
+    @BeforeEach
+    void createInitiator() {
+        initiatorId = insertUser();
+    }
+
+    @Test
+    void publishedEventHasViews() {
+        int eventId = insertEvent(initiatorId, State.PUBLISHED, 0, false);
+        when(statsClient.getViewsAsync(any(), any(), anyList(), anyBoolean()))
+                .thenReturn(CompletableFuture.completedFuture(Map.of(EventViewsService.eventUri(eventId), 5)));
+
+        ResponseEntity<Map> response = rest.getForEntity("/events/" + eventId, Map.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).containsEntry("views", 5);
+    }
+
+    @Test
+    void unpublishedEventIsNotFoundWithoutViewsLookup() {
+        int eventId = insertEvent(initiatorId, State.PENDING, 0, false);
+
+        ResponseEntity<String> response = rest.getForEntity("/events/" + eventId, String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        verify(statsClient, never()).getViewsAsync(any(), any(),
+                argThat((List<String> uris) -> uris.contains(EventViewsService.eventUri(eventId))), anyBoolean());
+    }
+
+    @Test
+    void statsServerFailureFailsRequest() {
+        int eventId = insertEvent(initiatorId, State.PUBLISHED, 0, false);
+        when(statsClient.getViewsAsync(any(), any(), anyList(), anyBoolean()))
+                .thenReturn(CompletableFuture.failedFuture(new StatsClientException("stats-server is down")));
+
+        ResponseEntity<String> response = rest.getForEntity("/events/" + eventId, String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+}
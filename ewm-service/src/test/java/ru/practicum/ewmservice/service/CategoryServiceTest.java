@@ -0,0 +1,46 @@
+package ru.practicum.ewmservice.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import ru.practicum.ewmservice.IntegrationTest;
+import ru.practicum.ewmservice.dto.CompilationResponseDto;
+import ru.practicum.ewmservice.model.Category;
+import ru.practicum.ewmservice.model.State;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CategoryServiceTest extends IntegrationTest {
+    @Autowired
+    CategoryService categoryService;
+
+    @Test
+    void renamedCategoryIsServedInCachedCompilation() {
+        int categoryId = insertCategory();
+        int eventId = insertEvent(insertUser(), categoryId, State.PUBLISHED, 0, false);
+        ResponseEntity<CompilationResponseDto> created = rest.postForEntity("/admin/compilations", Map.of(
+                "title", "Renamed category compilation",
+                "pinned", false,
+                "events", List.of(eventId)), CompilationResponseDto.class);
+        assertThat(created.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        String url = "/compilations/" + created.getBody().getId();
+        assertThat(categoryName(url)).isNotEqualTo("Renamed category");
+
+        categoryService.update(categoryId, Category.builder().id(categoryId).name("Renamed category").build());
+
+        assertThat(categoryName(url)).isEqualTo("Renamed category");
+    }
+
+    private String categoryName(String url) {
+        ResponseEntity<CompilationResponseDto> response = rest.getForEntity(url, CompilationResponseDto.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().getEvents()).hasSize(1);
+
+        return response.getBody().getEvents().get(0).getCategory().getName();
+    }
+}
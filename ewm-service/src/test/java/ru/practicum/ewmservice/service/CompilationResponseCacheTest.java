@@ -0,0 +1,85 @@
+package ru.practicum.ewmservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.ewmservice.dto.CompilationResponseDto;
+import ru.practicum.ewmservice.dto.EventResponseDto;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompilationResponseCacheTest {
+    static final int COMP_ID = 1;
+
+    final AtomicInteger loads = new AtomicInteger();
+    CompilationResponseCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new CompilationResponseCache(new ObjectMapper(), new SimpleMeterRegistry(), 100, 600000);
+    }
+
+    @Test
+    void eventEvictionUnlinksOtherEvents() {
+        load(1, 2);
+        cache.evictEvent(1);
+        load(3);
+
+        cache.evictEvent(2);
+        load(3);
+
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void compilationEvictionUnlinksEvents() {
+        load(1);
+        cache.evictCompilation(COMP_ID);
+        load(2);
+
+        cache.evictEvent(1);
+        load(2);
+
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void eventEvictionEvictsResponsesWithEvent() {
+        load(1, 2);
+        cache.evictEvent(2);
+        load(1, 2);
+
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void evictAllUnlinksEvents() {
+        load(1);
+        cache.evictAll();
+        load(2);
+
+        cache.evictEvent(1);
+        load(2);
+        cache.evictAll();
+        load(2);
+
+        assertThat(loads.get()).isEqualTo(3);
+    }
+
+    private void load(Integer... eventIds) {
+        cache.getById(COMP_ID, () -> {
+            loads.incrementAndGet();
+            return CompilationResponseDto.builder()
+                    .id(COMP_ID)
+                    .events(List.of(eventIds).stream()
+                            .map(eventId -> EventResponseDto.builder().id(eventId).build())
+                            .collect(Collectors.toList()))
+                    .build();
+        });
+    }
+}
@@ -0,0 +1,94 @@
+package ru.practicum.ewmservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.statsclient.StatsClient;
+import ru.practicum.statsdto.HitDto;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class EventViewsServiceTest {
+    static final int EVENT_ID = 1;
+
+    final AtomicInteger remoteViews = new AtomicInteger(100);
+    final AtomicInteger loads = new AtomicInteger();
+    final AtomicLong nanos = new AtomicLong();
+    EventViewsService eventViewsService;
+
+    @BeforeEach
+    void setUp() {
+        StatsClient statsClient = mock(StatsClient.class);
+        when(statsClient.getViewsAsync(isNull(), isNull(), anyList(), eq(false))).thenAnswer(invocation -> {
+            loads.incrementAndGet();
+            List<String> uris = invocation.getArgument(2);
+            return CompletableFuture.completedFuture(uris.stream()
+                    .collect(Collectors.toMap(uri -> uri, uri -> remoteViews.get())));
+        });
+        eventViewsService = new EventViewsService(statsClient, new SimpleMeterRegistry(), 100, 200, 1000,
+                nanos::get, Runnable::run);
+    }
+
+    @Test
+    void hitsAreCountedUntilReload() {
+        assertThat(eventViewsService.getViews(EVENT_ID)).isEqualTo(100);
+
+        eventViewsService.hit(hit());
+        eventViewsService.hit(hit());
+
+        assertThat(eventViewsService.getViews(EVENT_ID)).isEqualTo(102);
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void hotKeyIsStillRefreshed() {
+        assertThat(eventViewsService.getViews(EVENT_ID)).isEqualTo(100);
+
+        for (int hits = 1; hits <= 15; hits++) {
+            eventViewsService.hit(hit());
+            advance(100);
+            assertThat(eventViewsService.getViews(EVENT_ID)).isEqualTo(100 + hits);
+        }
+        assertThat(loads.get()).isEqualTo(6);
+
+        remoteViews.set(1000);
+        advance(300);
+        eventViewsService.getViews(EVENT_ID);
+
+        assertThat(eventViewsService.getViews(EVENT_ID)).isEqualTo(1000);
+        assertThat(loads.get()).isEqualTo(7);
+    }
+
+    @Test
+    void idleKeyExpires() {
+        assertThat(eventViewsService.getViews(EVENT_ID)).isEqualTo(100);
+        eventViewsService.hit(hit());
+
+        remoteViews.set(50);
+        advance(1000);
+
+        assertThat(eventViewsService.getViews(EVENT_ID)).isEqualTo(50);
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    private void advance(long millis) {
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    private static HitDto hit() {
+        return new HitDto("EwmServiceApplication", EventViewsService.eventUri(EVENT_ID), "10.0.0.1",
+                "2026-01-01 00:00:00");
+    }
+}
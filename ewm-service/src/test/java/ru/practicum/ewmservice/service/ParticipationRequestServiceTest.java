@@ -0,0 +1,65 @@
+package ru.practicum.ewmservice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import ru.practicum.ewmservice.IntegrationTest;
+import ru.practicum.ewmservice.model.ParticipationRequest;
+import ru.practicum.ewmservice.model.ParticipationRequestState;
+import ru.practicum.ewmservice.model.State;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ParticipationRequestServiceTest extends IntegrationTest {
+    @Autowired
+    ParticipationRequestService participationRequestService;
+
+    int initiatorId;
+
+    @BeforeEach
+    void createInitiator() {
+        initiatorId = insertUser();
+    }
+
+    @Test
+    void confirmSeveralRequestsOfEventWithoutModeration() {
+        int eventId = insertEvent(initiatorId, State.PUBLISHED, 10, false);
+        List<Integer> requestIds = insertRequests(eventId, 3, ParticipationRequestState.CONFIRMED);
+
+        List<ParticipationRequest> confirmed = participationRequestService
+                .confirmParticipationRequest(requestIds.subList(0, 2), eventId, initiatorId);
+
+        assertThat(ids(confirmed)).containsExactlyInAnyOrderElementsOf(requestIds.subList(0, 2));
+    }
+
+    @Test
+    void confirmSeveralPendingRequestsOfModeratedEvent() {
+        int eventId = insertEvent(initiatorId, State.PUBLISHED, 10, true);
+        List<Integer> requestIds = insertRequests(eventId, 3, ParticipationRequestState.PENDING);
+
+        List<ParticipationRequest> confirmed = participationRequestService
+                .confirmParticipationRequest(requestIds.subList(0, 2), eventId, initiatorId);
+
+        assertThat(ids(confirmed)).containsExactlyElementsOf(requestIds.subList(0, 2));
+        assertThat(ids(participationRequestService.getAllForEventIdByInitiator(null, eventId, initiatorId)))
+                .containsExactlyInAnyOrderElementsOf(requestIds);
+    }
+
+    private List<Integer> insertRequests(int eventId, int requests, ParticipationRequestState status) {
+        return Stream.generate(() -> jdbcTemplate.queryForObject("INSERT INTO participation_request " +
+                                "(event_id, requester, status) VALUES (?, ?, ?) RETURNING participation_request_id",
+                        Integer.class, eventId, insertUser(), status.name()))
+                .limit(requests)
+                .collect(Collectors.toList());
+    }
+
+    private static List<Integer> ids(List<ParticipationRequest> requests) {
+        return requests.stream()
+                .map(ParticipationRequest::getId)
+                .collect(Collectors.toList());
+    }
+}
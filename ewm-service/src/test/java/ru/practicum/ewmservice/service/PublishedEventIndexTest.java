@@ -0,0 +1,160 @@
+package ru.practicum.ewmservice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.ewmservice.model.Category;
+import ru.practicum.ewmservice.model.Event;
+import ru.practicum.ewmservice.model.State;
+import ru.practicum.ewmservice.model.User;
+import ru.practicum.ewmservice.storage.EventRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PublishedEventIndexTest {
+    static final LocalDateTime EVENT_DATE = LocalDateTime.now().plusDays(10);
+
+    EventRepository eventRepository;
+    PublishedEventIndex index;
+
+    @BeforeEach
+    void setUp() {
+        eventRepository = mock(EventRepository.class);
+        index = new PublishedEventIndex(eventRepository, true);
+    }
+
+    @Test
+    void changesDuringRebuildAreReplayed() {
+        when(eventRepository.findAllPublishedWithEventDateFrom(any())).thenAnswer(invocation -> {
+            index.put(event(2, 0));
+            return List.of(event(1, 0));
+        });
+
+        index.rebuild();
+
+        assertThat(indexedIds()).containsExactly(1, 2);
+    }
+
+    @Test
+    void removalDuringRebuildIsReplayed() {
+        when(eventRepository.findAllPublishedWithEventDateFrom(any())).thenAnswer(invocation -> {
+            index.put(event(1, 0).toBuilder().state(State.CANCELED).build());
+            return List.of(event(1, 0), event(2, 0));
+        });
+
+        index.rebuild();
+
+        assertThat(indexedIds()).containsExactly(2);
+    }
+
+    @Test
+    void consistentIndexIsNotRebuilt() {
+        when(eventRepository.findAllPublishedWithEventDateFrom(any())).thenReturn(List.of(event(1, 0)));
+        index.rebuild();
+
+        index.checkConsistency();
+
+        verify(eventRepository, times(2)).findAllPublishedWithEventDateFrom(any());
+    }
+
+    @Test
+    void differingIndexIsRebuilt() {
+        when(eventRepository.findAllPublishedWithEventDateFrom(any())).thenReturn(List.of(event(1, 0)));
+        index.rebuild();
+        when(eventRepository.findAllPublishedWithEventDateFrom(any())).thenReturn(List.of(event(1, 3)));
+
+        index.checkConsistency();
+
+        verify(eventRepository, times(3)).findAllPublishedWithEventDateFrom(any());
+        assertThat(index.search(null, null, LocalDateTime.now(), null, false, null, 0, 10))
+                .extracting(Event::getConfirmedRequest)
+                .containsExactly(3);
+    }
+
+    @Test
+    void confirmedRequestsChangeAvailability() {
+        when(eventRepository.findAllPublishedWithEventDateFrom(any()))
+                .thenReturn(List.of(event(1, 0), event(2, 0), event(3, 9)));
+        index.rebuild();
+        assertThat(availableIds()).containsExactly(1, 2, 3);
+
+        refreshConfirmedRequests(2, 10);
+        refreshConfirmedRequests(3, 10);
+
+        assertThat(availableIds()).containsExactly(1);
+        assertThat(indexedIds()).containsExactly(1, 2, 3);
+
+        refreshConfirmedRequests(3, 4);
+
+        assertThat(availableIds()).containsExactly(1, 3);
+        assertThat(index.search(null, null, LocalDateTime.now(), null, false, null, 0, 10))
+                .extracting(Event::getConfirmedRequest)
+                .containsExactly(0, 10, 4);
+    }
+
+    @Test
+    void confirmedRequestsOfEventsOnSameDate() {
+        when(eventRepository.findAllPublishedWithEventDateFrom(any())).thenReturn(List.of(
+                event(5, 0).toBuilder().eventDate(EVENT_DATE).build(),
+                event(6, 0).toBuilder().eventDate(EVENT_DATE).build(),
+                event(7, 0).toBuilder().eventDate(EVENT_DATE).build()));
+        index.rebuild();
+        assertThat(availableIds()).containsExactly(5, 6, 7);
+
+        refreshConfirmedRequests(6, 10);
+        refreshConfirmedRequests(8, 10);
+
+        assertThat(availableIds()).containsExactly(5, 7);
+    }
+
+    @Test
+    void rescheduledEventIsReordered() {
+        when(eventRepository.findAllPublishedWithEventDateFrom(any())).thenReturn(List.of(event(1, 0), event(2, 0)));
+        index.rebuild();
+        assertThat(indexedIds()).containsExactly(1, 2);
+
+        index.put(event(1, 0).toBuilder().eventDate(EVENT_DATE.plusDays(1)).build());
+        refreshConfirmedRequests(1, 10);
+
+        assertThat(indexedIds()).containsExactly(2, 1);
+        assertThat(availableIds()).containsExactly(2);
+    }
+
+    private void refreshConfirmedRequests(int eventId, int confirmedRequest) {
+        when(eventRepository.findConfirmedRequestById(eventId)).thenReturn(confirmedRequest);
+        index.refreshConfirmedRequests(eventId);
+    }
+
+    private List<Integer> availableIds() {
+        return index.search(null, null, LocalDateTime.now(), null, true, null, 0, 10).stream()
+                .map(Event::getId)
+                .collect(Collectors.toList());
+    }
+
+    private List<Integer> indexedIds() {
+        return index.search(null, null, LocalDateTime.now(), null, false, null, 0, 10).stream()
+                .map(Event::getId)
+                .collect(Collectors.toList());
+    }
+
+    private static Event event(int id, int confirmedRequest) {
+        return Event.builder()
+                .id(id)
+                .state(State.PUBLISHED)
+                .initiator(User.builder().id(id).build())
+                .category(Category.builder().id(id).build())
+                .eventDate(EVENT_DATE.plusMinutes(id))
+                .paid(false)
+                .participantLimit(10)
+                .confirmedRequest(confirmedRequest)
+                .build();
+    }
+}
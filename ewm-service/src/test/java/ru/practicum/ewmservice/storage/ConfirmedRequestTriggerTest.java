@@ -0,0 +1,132 @@
+package ru.practicum.ewmservice.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.ewmservice.IntegrationTest;
+import ru.practicum.ewmservice.model.ParticipationRequestState;
+import ru.practicum.ewmservice.model.State;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static ru.practicum.ewmservice.model.ParticipationRequestState.CANCELED;
+import static ru.practicum.ewmservice.model.ParticipationRequestState.CONFIRMED;
+import static ru.practicum.ewmservice.model.ParticipationRequestState.PENDING;
+import static ru.practicum.ewmservice.model.ParticipationRequestState.REJECTED;
+
+/**
+ * The statement-level triggers on participation_request must keep events.confirmed_request equal to
+ * the number of CONFIRMED requests of the event, whatever statement changes the requests.
+ */
+class ConfirmedRequestTriggerTest extends IntegrationTest {
+    int eventId;
+    int otherEventId;
+
+    @BeforeEach
+    void createEvents() {
+        int initiatorId = insertUser();
+        eventId = insertEvent(initiatorId, State.PUBLISHED, 10, true);
+        otherEventId = insertEvent(initiatorId, State.PUBLISHED, 10, true);
+    }
+
+    @Test
+    void multiRowInsertCountsConfirmed() {
+        jdbcTemplate.update("INSERT INTO participation_request (event_id, requester, status) VALUES " +
+                        "(?, ?, 'CONFIRMED'), (?, ?, 'CONFIRMED'), (?, ?, 'PENDING'), (?, ?, 'CONFIRMED')",
+                eventId, insertUser(), eventId, insertUser(), eventId, insertUser(), otherEventId, insertUser());
+
+        assertConsistent(eventId, 2);
+        assertConsistent(otherEventId, 1);
+    }
+
+    @Test
+    void multiRowConfirmAddsEveryRow() {
+        List<Integer> requestIds = insertRequests(eventId, PENDING, PENDING, PENDING, PENDING);
+
+        updateStatus(requestIds.subList(0, 3), CONFIRMED);
+
+        assertConsistent(eventId, 3);
+    }
+
+    @Test
+    void rejectOnlySubtractsConfirmed() {
+        List<Integer> requestIds = insertRequests(eventId, CONFIRMED, CONFIRMED, PENDING);
+
+        updateStatus(requestIds.subList(1, 3), REJECTED);
+
+        assertConsistent(eventId, 1);
+    }
+
+    @Test
+    void cancelSubtractsConfirmed() {
+        List<Integer> requestIds = insertRequests(eventId, CONFIRMED, CONFIRMED, PENDING);
+
+        updateStatus(requestIds.subList(0, 1), CANCELED);
+        updateStatus(requestIds.subList(2, 3), CANCELED);
+
+        assertConsistent(eventId, 1);
+    }
+
+    @Test
+    void confirmedToOtherStatusesInOneStatement() {
+        List<Integer> requestIds = insertRequests(eventId, CONFIRMED, CONFIRMED, CONFIRMED, PENDING);
+        List<Integer> otherRequestIds = insertRequests(otherEventId, PENDING, CONFIRMED);
+
+        jdbcTemplate.update("UPDATE participation_request SET status = CASE participation_request_id " +
+                        "WHEN ? THEN 'CANCELED' WHEN ? THEN 'REJECTED' WHEN ? THEN 'PENDING' " +
+                        "WHEN ? THEN 'CONFIRMED' WHEN ? THEN 'CONFIRMED' WHEN ? THEN 'WAITING' END " +
+                        "WHERE participation_request_id IN (?, ?, ?, ?, ?, ?)",
+                requestIds.get(0), requestIds.get(1), requestIds.get(2), requestIds.get(3),
+                otherRequestIds.get(0), otherRequestIds.get(1),
+                requestIds.get(0), requestIds.get(1), requestIds.get(2), requestIds.get(3),
+                otherRequestIds.get(0), otherRequestIds.get(1));
+
+        assertConsistent(eventId, 1);
+        assertConsistent(otherEventId, 1);
+    }
+
+    @Test
+    void updateWithoutStatusChangeKeepsCount() {
+        List<Integer> requestIds = insertRequests(eventId, CONFIRMED, CONFIRMED);
+
+        updateStatus(requestIds, CONFIRMED);
+        jdbcTemplate.update("UPDATE participation_request SET created = created - interval '1 minute' " +
+                "WHERE event_id = ?", eventId);
+
+        assertConsistent(eventId, 2);
+    }
+
+    @Test
+    void deleteSubtractsConfirmed() {
+        insertRequests(eventId, CONFIRMED, CONFIRMED, PENDING);
+
+        jdbcTemplate.update("DELETE FROM participation_request WHERE event_id = ?", eventId);
+
+        assertConsistent(eventId, 0);
+    }
+
+    private List<Integer> insertRequests(int eventId, ParticipationRequestState... statuses) {
+        return Stream.of(statuses)
+                .map(status -> jdbcTemplate.queryForObject("INSERT INTO participation_request " +
+                                "(event_id, requester, status) VALUES (?, ?, ?) RETURNING participation_request_id",
+                        Integer.class, eventId, insertUser(), status.name()))
+                .collect(Collectors.toList());
+    }
+
+    private void updateStatus(List<Integer> requestIds, ParticipationRequestState status) {
+        jdbcTemplate.update("UPDATE participation_request SET status = ? WHERE participation_request_id IN (" +
+                requestIds.stream().map(String::valueOf).collect(Collectors.joining(",")) + ")", status.name());
+    }
+
+    private void assertConsistent(int eventId, int confirmed) {
+        Integer counted = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM participation_request " +
+                "WHERE event_id = ? AND status = 'CONFIRMED'", Integer.class, eventId);
+        Integer stored = jdbcTemplate.queryForObject("SELECT confirmed_request FROM events WHERE event_id = ?",
+                Integer.class, eventId);
+
+        assertThat(counted).isEqualTo(confirmed);
+        assertThat(stored).as("events.confirmed_request of event %s", eventId).isEqualTo(confirmed);
+    }
+}
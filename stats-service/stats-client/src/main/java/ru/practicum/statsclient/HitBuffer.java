@@ -0,0 +1,122 @@
+package ru.practicum.statsclient;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import ru.practicum.statsdto.HitDto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Bounded in-memory queue of hits, shipped in batches by a background flusher
+ * as soon as a batch is full or the flush interval has passed.
+ * When the queue is full new hits are dropped and counted instead of blocking the caller.
+ */
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class HitBuffer {
+    final BlockingQueue<HitDto> queue;
+    final int batchSize;
+    final long flushIntervalNanos;
+    final Consumer<List<HitDto>> sender;
+    final Counter droppedCounter;
+    final Counter sentCounter;
+    final Timer flushTimer;
+    final Thread flusher;
+    volatile boolean running = true;
+
+    HitBuffer(int capacity,
+              int batchSize,
+              long flushIntervalMs,
+              Consumer<List<HitDto>> sender,
+              ThreadFactory threadFactory,
+              MeterRegistry meterRegistry) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.sender = sender;
+        this.droppedCounter = Counter.builder("stats.client.hits.dropped")
+                .description("Hits dropped because the queue was full or the batch could not be sent")
+                .register(meterRegistry);
+        this.sentCounter = Counter.builder("stats.client.hits.sent")
+                .description("Hits delivered to stats-server")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("stats.client.hits.flush")
+                .description("Latency of one batch delivery to stats-server")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("stats.client.hits.queue.size", queue, BlockingQueue::size)
+                .description("Hits waiting to be sent")
+                .register(meterRegistry);
+        this.flusher = threadFactory.newThread(this::run);
+    }
+
+    void start() {
+        flusher.start();
+    }
+
+    void stop() throws InterruptedException {
+        running = false;
+        flusher.interrupt();
+        flusher.join(TimeUnit.NANOSECONDS.toMillis(flushIntervalNanos) + 5000);
+    }
+
+    boolean offer(HitDto hitDto) {
+        if (queue.offer(hitDto)) {
+            return true;
+        }
+        droppedCounter.increment();
+        log.warn("Hit queue is full, hit {} dropped", hitDto.getUri());
+
+        return false;
+    }
+
+    private void run() {
+        List<HitDto> batch = new ArrayList<>(batchSize);
+        long nextFlush = System.nanoTime() + flushIntervalNanos;
+        while (running) {
+            try {
+                HitDto hitDto = queue.poll(Math.max(nextFlush - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+                if (hitDto != null) {
+                    batch.add(hitDto);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+            } catch (InterruptedException e) {
+                break;
+            }
+            if (batch.size() >= batchSize || System.nanoTime() - nextFlush >= 0) {
+                flush(batch);
+                nextFlush = System.nanoTime() + flushIntervalNanos;
+            }
+        }
+        do {
+            queue.drainTo(batch, batchSize - batch.size());
+            flush(batch);
+        } while (!queue.isEmpty());
+    }
+
+    private void flush(List<HitDto> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            flushTimer.record(() -> sender.accept(List.copyOf(batch)));
+            sentCounter.increment(batch.size());
+        } catch (RuntimeException e) {
+            droppedCounter.increment(batch.size());
+            log.warn("Failed to send {} hits to stats-server: {}", batch.size(), e.getMessage());
+        } finally {
+            batch.clear();
+        }
+    }
+}
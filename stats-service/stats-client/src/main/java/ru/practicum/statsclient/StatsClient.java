@@ -1,54 +1,328 @@
 package ru.practicum.statsclient;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.AccessLevel;
-import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.ResponseEntity;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 import ru.practicum.statsdto.HitDto;
 import ru.practicum.statsdto.Stat;
+import ru.practicum.statsdto.StatsQueryDto;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
+/**
+ * Client of stats-server on one shared {@link HttpClient}, so connections are kept alive between calls.
+ * The pool is the JDK default: idle connections are kept for {@code jdk.httpclient.keepalive.timeout} seconds
+ * (1200) and their number is not limited unless {@code jdk.httpclient.connectionPoolSize} is set;
+ * both are JVM system properties.
+ * Queries are sent asynchronously and callers can overlap them with their own work.
+ */
 @Service
 @Component
-@RequiredArgsConstructor
 @Slf4j
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class StatsClient {
-    String local = "http://stats-server:9090";
-    RestTemplate restTemplate = new RestTemplate();
+    static final TypeReference<Map<String, Integer>> VIEWS_TYPE = new TypeReference<>() {
+    };
+    final String local;
     DateTimeFormatter dateTimeFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    final HitBuffer hitBuffer;
+    final int queryChunkSize;
+    final Duration requestTimeout;
+    final ExecutorService httpExecutor;
+    final HttpClient httpClient;
+    final ObjectMapper objectMapper;
+    final OperationMeters hitsMeters;
+    final OperationMeters statsMeters;
+    final OperationMeters queryMeters;
+
+    public StatsClient(@Value("${stats-server.url:http://stats-server:9090}") String local,
+                       @Value("${stats-client.hits.queue-capacity:10000}") int queueCapacity,
+                       @Value("${stats-client.hits.batch-size:500}") int batchSize,
+                       @Value("${stats-client.hits.flush-interval-ms:1000}") long flushIntervalMs,
+                       @Value("${stats-client.query.chunk-size:200}") int queryChunkSize,
+                       @Value("${stats-client.http.connect-timeout-ms:1000}") long connectTimeoutMs,
+                       @Value("${stats-client.http.request-timeout-ms:5000}") long requestTimeoutMs,
+                       @Value("${virtual-threads.enabled:false}") boolean virtualThreads,
+                       ObjectMapper objectMapper,
+                       MeterRegistry meterRegistry) {
+        this.local = local;
+        this.hitBuffer = new HitBuffer(queueCapacity, batchSize, flushIntervalMs, this::saveStats,
+                virtualThreads ? VirtualThreads.factory("stats-hit-flusher-") : daemonThreads("stats-hit-flusher"),
+                meterRegistry);
+        this.queryChunkSize = queryChunkSize;
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMs);
+        this.httpExecutor = virtualThreads ? VirtualThreads.newThreadPerTaskExecutor("stats-http-") : null;
+        HttpClient.Builder httpClientBuilder = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs));
+        if (httpExecutor != null) {
+            httpClientBuilder.executor(httpExecutor);
+        }
+        this.httpClient = httpClientBuilder.build();
+        this.objectMapper = objectMapper;
+        this.hitsMeters = new OperationMeters("hits", meterRegistry);
+        this.statsMeters = new OperationMeters("stats", meterRegistry);
+        this.queryMeters = new OperationMeters("query", meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        hitBuffer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        hitBuffer.stop();
+        if (httpExecutor != null) {
+            httpExecutor.shutdown();
+        }
+    }
 
     public void saveStat(HitDto hitDto) {
-        log.info("Request for save {}", hitDto);
-        restTemplate.postForLocation(local + "/hit", hitDto);
+        log.debug("Request for save {}", hitDto);
+        hitBuffer.offer(hitDto);
+    }
+
+    public void saveStats(List<HitDto> hitDtos) {
+        log.info("Request for save {} hits", hitDtos.size());
+        join(timed(hitsMeters, () -> send(post("/hits", hitDtos), body -> body)));
     }
 
     public List<Stat> getStat(LocalDateTime start,
                               LocalDateTime end,
                               List<String> uris,
                               boolean unique) {
+        return join(getStatAsync(start, end, uris, unique));
+    }
+
+    public CompletableFuture<List<Stat>> getStatAsync(LocalDateTime start,
+                                                      LocalDateTime end,
+                                                      List<String> uris,
+                                                      boolean unique) {
+        log.info("Request for get statistic from {} to {}, unique - {}", start, end, unique);
+
+        return timed(statsMeters, () -> send(get(statsUrl(start, end, uris, unique)),
+                body -> Arrays.asList(objectMapper.readValue(body, Stat[].class))));
+    }
+
+    public String statsUrl(LocalDateTime start,
+                           LocalDateTime end,
+                           List<String> uris,
+                           boolean unique) {
         String startFormatted = "";
         String endFormatted = "";
         if (start != null && end != null) {
-            startFormatted = start.format(dateTimeFormatter);
-            endFormatted = end.format(dateTimeFormatter);
+            startFormatted = encode(start.format(dateTimeFormatter));
+            endFormatted = encode(end.format(dateTimeFormatter));
+        }
+        String urisParam = uris != null
+                ? "&uris=" + uris.stream().map(StatsClient::encode).collect(Collectors.joining(","))
+                : "";
+
+        return local + "/stats?start=" + startFormatted + "&end=" + endFormatted + urisParam + "&unique=" + unique;
+    }
+
+    public Map<String, Integer> getViews(LocalDateTime start,
+                                         LocalDateTime end,
+                                         List<String> uris,
+                                         boolean unique) {
+        return join(getViewsAsync(start, end, uris, unique));
+    }
+
+    /**
+     * Views of the uris; more than {@code stats-client.query.chunk-size} uris are queried in chunks sent at once.
+     */
+    public CompletableFuture<Map<String, Integer>> getViewsAsync(LocalDateTime start,
+                                                                 LocalDateTime end,
+                                                                 List<String> uris,
+                                                                 boolean unique) {
+        if (uris.isEmpty()) {
+            return CompletableFuture.completedFuture(Collections.emptyMap());
+        }
+        StatsQueryDto.StatsQueryDtoBuilder queryBuilder = StatsQueryDto.builder()
+                .unique(unique);
+        if (start != null && end != null) {
+            queryBuilder.start(start.format(dateTimeFormatter))
+                    .end(end.format(dateTimeFormatter));
+        }
+        StatsQueryDto query = queryBuilder.build();
+        if (uris.size() <= queryChunkSize) {
+            return queryViews(query.toBuilder().uris(uris).build());
+        }
+        log.info("Request for get views of {} uris in chunks of {}", uris.size(), queryChunkSize);
+        List<CompletableFuture<Map<String, Integer>>> chunks = new ArrayList<>();
+        for (int from = 0; from < uris.size(); from += queryChunkSize) {
+            chunks.add(queryViews(query.toBuilder()
+                    .uris(uris.subList(from, Math.min(from + queryChunkSize, uris.size())))
+                    .build()));
+        }
+
+        return CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0]))
+                .thenApply(ignored -> {
+                    Map<String, Integer> views = new HashMap<>();
+                    for (CompletableFuture<Map<String, Integer>> chunk : chunks) {
+                        chunk.join().forEach((uri, hits) -> views.merge(uri, hits, Integer::sum));
+                    }
+                    return views;
+                });
+    }
+
+    private CompletableFuture<Map<String, Integer>> queryViews(StatsQueryDto query) {
+        log.info("Request for get views of {} uris, unique - {}", query.getUris().size(), query.isUnique());
+
+        return timed(queryMeters, () -> send(post("/stats/query", query),
+                body -> objectMapper.readValue(body, VIEWS_TYPE)));
+    }
+
+    private HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(requestTimeout)
+                .GET()
+                .build();
+    }
+
+    private HttpRequest post(String path, Object body) {
+        try {
+            return HttpRequest.newBuilder(URI.create(local + path))
+                    .timeout(requestTimeout)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new StatsClientException("Failed to serialize request to " + path, e);
         }
-        log.info("Request for get statistic from {} to {}, unique - {}",
-                startFormatted,
-                endFormatted,
-                unique);
-        ResponseEntity<Stat[]> stats = restTemplate.getForEntity(local + "/stats?start=" + startFormatted +
-                "&end=" + endFormatted + "&uris=" + uris + "&unique=" + unique, Stat[].class);
+    }
+
+    private <T> CompletableFuture<T> send(HttpRequest request, ResponseReader<T> reader) {
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .thenApply(response -> {
+                    if (response.statusCode() / 100 != 2) {
+                        throw new StatsClientException(request.method() + " " + request.uri() +
+                                " returned " + response.statusCode());
+                    }
+                    try {
+                        return reader.read(response.body());
+                    } catch (IOException e) {
+                        throw new StatsClientException("Failed to read response of " + request.uri(), e);
+                    }
+                });
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw unwrap(e) instanceof RuntimeException
+                    ? (RuntimeException) unwrap(e)
+                    : new StatsClientException("Call to stats-server failed", unwrap(e));
+        }
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private <T> CompletableFuture<T> timed(OperationMeters meters, Supplier<CompletableFuture<T>> call) {
+        Timer.Sample sample = Timer.start(meters.meterRegistry);
+        CompletableFuture<T> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+
+        return future.whenComplete((result, error) -> meters.stop(sample, error));
+    }
+
+    /**
+     * Meters of one operation, registered once: timers per outcome and an error counter per exception type.
+     */
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    private static class OperationMeters {
+        String operation;
+        MeterRegistry meterRegistry;
+        Timer success;
+        Timer failure;
+        Map<Class<?>, Counter> errors = new ConcurrentHashMap<>();
+
+        OperationMeters(String operation, MeterRegistry meterRegistry) {
+            this.operation = operation;
+            this.meterRegistry = meterRegistry;
+            this.success = timer("SUCCESS");
+            this.failure = timer("ERROR");
+        }
+
+        void stop(Timer.Sample sample, Throwable error) {
+            if (error == null) {
+                sample.stop(success);
+                return;
+            }
+            sample.stop(failure);
+            errors.computeIfAbsent(unwrap(error).getClass(), type -> Counter.builder("stats.client.errors")
+                            .description("Failed calls to stats-server")
+                            .tag("operation", operation)
+                            .tag("exception", type.getSimpleName())
+                            .register(meterRegistry))
+                    .increment();
+        }
+
+        private Timer timer(String outcome) {
+            return Timer.builder("stats.client.requests")
+                    .description("Latency of calls to stats-server")
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
+    }
 
-        return Arrays.asList(Objects.requireNonNull(stats.getBody()));
+    @FunctionalInterface
+    private interface ResponseReader<T> {
+        T read(byte[] body) throws IOException;
     }
 }
@@ -0,0 +1,23 @@
+package ru.practicum.statsdto;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import javax.validation.constraints.NotEmpty;
+import java.util.List;
+
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder(toBuilder = true)
+@ToString
+public class StatsQueryDto {
+    String start;
+    String end;
+    @NotEmpty
+    List<String> uris;
+    boolean unique;
+    boolean approximate;
+}
@@ -5,23 +5,39 @@ import lombok.AllArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.statsdto.HitDto;
 import ru.practicum.statsdto.Stat;
+import ru.practicum.statsdto.StatsQueryDto;
+import ru.practicum.statsserver.exception.BadRequestException;
 import ru.practicum.statsserver.mapper.HitMapper;
+import ru.practicum.statsserver.model.ExportFormat;
 import ru.practicum.statsserver.model.Hit;
+import ru.practicum.statsserver.service.HitExportService;
 import ru.practicum.statsserver.service.StatsService;
+import ru.practicum.statsserver.util.HyperLogLog;
 
+import javax.validation.Valid;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
 
 @RestController
+@Validated
 @AllArgsConstructor
 @FieldDefaults(level = AccessLevel.PRIVATE)
 @Slf4j
 public class StatsController {
+    static final String RELATIVE_ERROR_HEADER = "X-Relative-Standard-Error";
 
     final StatsService statsService;
+    final HitExportService hitExportService;
 
     @PostMapping(path = "/hit")
     @ResponseStatus(HttpStatus.CREATED)
@@ -33,14 +49,66 @@ public class StatsController {
         return HitMapper.toHitDto(savedHit);
     }
 
+    @PostMapping(path = "/hits")
+    @ResponseStatus(HttpStatus.CREATED)
+    public void addAll(@RequestBody List<@Valid HitDto> hitDtos) {
+        List<Hit> hits = hitDtos.stream()
+                .map(HitMapper::toHit)
+                .collect(Collectors.toList());
+        int saved = statsService.addAll(hits);
+        log.info("Save {} hits", saved);
+    }
+
     @GetMapping(path = "/stats")
+    public ResponseEntity<List<Stat>> get(@RequestParam String start,
+                                          @RequestParam String end,
+                                          @RequestParam(required = false) List<String> uris,
+                                          @RequestParam(required = false) boolean unique,
+                                          @RequestParam(required = false) boolean approximate) {
+        log.info("Get statistic for start = {}, end = {}, uris = {}, unique = {}, approximate = {}",
+                start, end, uris, unique, approximate);
+        List<Stat> stats = statsService.get(start, end, uris, unique, approximate);
+        if (unique && approximate) {
+            return ResponseEntity.ok()
+                    .header(RELATIVE_ERROR_HEADER, String.valueOf(HyperLogLog.RELATIVE_STANDARD_ERROR))
+                    .body(stats);
+        }
+
+        return ResponseEntity.ok(stats);
+    }
+
+    @PostMapping(path = "/stats/query")
     @ResponseStatus(HttpStatus.OK)
-    public List<Stat> get(@RequestParam String start,
-                          @RequestParam String end,
-                          @RequestParam(required = false) List<String> uris,
-                          @RequestParam(required = false) boolean unique) {
-        log.info("Get statistic for start = {}, end = {}, uris = {}, unique = {}", start, end, uris, unique);
+    public Map<String, Integer> query(@RequestBody @Validated StatsQueryDto statsQueryDto) {
+        log.info("Query statistic for {}", statsQueryDto);
+
+        return statsService.getHitsByUri(Optional.ofNullable(statsQueryDto.getStart()).orElse(""),
+                Optional.ofNullable(statsQueryDto.getEnd()).orElse(""),
+                statsQueryDto.getUris(),
+                statsQueryDto.isUnique(),
+                statsQueryDto.isApproximate());
+    }
+
+    @GetMapping(path = "/stats/top")
+    public List<Stat> getTop(@RequestParam(defaultValue = "5m") String window,
+                             @RequestParam(defaultValue = "10") int n) {
+        log.info("Get top {} uris for window = {}", n, window);
+
+        return statsService.getTop(window, n);
+    }
+
+    @GetMapping(path = "/stats/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam String start,
+                                                        @RequestParam String end,
+                                                        @RequestParam(defaultValue = "csv") String format) {
+        log.info("Export hits for start = {}, end = {}, format = {}", start, end, format);
+        ExportFormat exportFormat = Arrays.stream(ExportFormat.values())
+                .filter(value -> value.name().equalsIgnoreCase(format))
+                .findFirst()
+                .orElseThrow(() -> new BadRequestException(HttpStatus.BAD_REQUEST, "unknown export format " + format));
 
-        return statsService.get(start, end, uris, unique);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .body(hitExportService.export(start, end, exportFormat));
     }
-}
\ No newline at end of file
+}
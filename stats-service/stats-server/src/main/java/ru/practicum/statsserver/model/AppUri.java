@@ -0,0 +1,9 @@
+package ru.practicum.statsserver.model;
+
+import lombok.Value;
+
+@Value
+public class AppUri {
+    String app;
+    String uri;
+}
@@ -15,13 +15,6 @@ import java.time.LocalDateTime;
 @Builder(toBuilder = true)
 @Entity
 @NamedNativeQueries({
-        @NamedNativeQuery(name = "GetNotUniqueIpStat", resultSetMapping = "HitToDtoMapping",
-                query = "SELECT h.app AS app, h.uri AS uri, COUNT(h.ip) AS hits " +
-                        "FROM hits AS h " +
-                        "WHERE (h.req_time BETWEEN  :start AND :end) AND h.uri in :uris " +
-                        "GROUP BY h.app, h.uri " +
-                        "ORDER BY hits DESC"
-        ),
         @NamedNativeQuery(name = "GetUniqueIpStat", resultSetMapping = "HitToDtoMapping",
                 query = "SELECT h.app AS app, h.uri AS uri, COUNT(DISTINCT h.ip) AS hits " +
                         "FROM hits AS h " +
@@ -29,25 +22,13 @@ import java.time.LocalDateTime;
                         "GROUP BY h.app, h.uri " +
                         "ORDER BY hits DESC"
         ),
-        @NamedNativeQuery(name = "GetNotUniqueIpNoUriStat", resultSetMapping = "HitToDtoMapping",
-                query = "SELECT h.app AS app, h.uri AS uri, COUNT(h.ip) AS hits " +
-                        "FROM hits AS h " +
-                        "WHERE (h.req_time BETWEEN :start AND :end) " +
-                        "GROUP BY h.app, h.uri " +
-                        "ORDER BY hits DESC"
-        ),
         @NamedNativeQuery(name = "GetUniqueIpNoUriStat", resultSetMapping = "HitToDtoMapping",
                 query = "SELECT h.app AS app, h.uri AS uri, COUNT(DISTINCT h.ip) AS hits " +
                         "FROM hits AS h " +
                         "WHERE (h.req_time BETWEEN :start AND :end) " +
                         "GROUP BY h.app, h.uri " +
                         "ORDER BY hits DESC"
-        ),
-        @NamedNativeQuery(name = "GetWithoutTime", resultSetMapping = "HitToDtoMapping",
-                query = "SELECT h.app AS app, h.uri AS uri, COUNT(h.ip) AS hits " +
-                        "FROM hits AS h " +
-                        "GROUP BY h.app, h.uri " +
-                        "ORDER BY hits DESC")
+        )
 })
 @SqlResultSetMapping(name = "HitToDtoMapping",
         classes = {
@@ -62,8 +43,9 @@ import java.time.LocalDateTime;
 )
 public class Hit {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    int id;
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "hits_seq")
+    @SequenceGenerator(name = "hits_seq", sequenceName = "hits_id_seq", allocationSize = 50)
+    long id;
     String app;
     String uri;
     String ip;
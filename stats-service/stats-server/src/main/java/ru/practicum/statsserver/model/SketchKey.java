@@ -0,0 +1,12 @@
+package ru.practicum.statsserver.model;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+@Value
+public class SketchKey {
+    LocalDateTime bucket;
+    String app;
+    String uri;
+}
@@ -0,0 +1,111 @@
+package ru.practicum.statsserver.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.statsdto.HitDto;
+import ru.practicum.statsserver.exception.BadRequestException;
+import ru.practicum.statsserver.mapper.HitMapper;
+import ru.practicum.statsserver.model.ExportFormat;
+import ru.practicum.statsserver.storage.StatsRepository;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Streams raw hits to the response as they are read from the database cursor,
+ * so memory use does not depend on the size of the range.
+ */
+@Service
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class HitExportService {
+    static final String CSV_HEADER = "app,uri,ip,timestamp\n";
+
+    final StatsRepository repository;
+    final ObjectMapper objectMapper;
+    final int fetchSize;
+    final DateTimeFormatter dateTimeFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    public HitExportService(StatsRepository repository,
+                            ObjectMapper objectMapper,
+                            @Value("${stats.export.fetch-size:1000}") int fetchSize) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+    }
+
+    public StreamingResponseBody export(String start, String end, ExportFormat format) {
+        LocalDateTime startFormatted = parse(start);
+        LocalDateTime endFormatted = parse(end);
+        if (endFormatted.isBefore(startFormatted)) {
+            throw new BadRequestException(HttpStatus.BAD_REQUEST, "wrong times value for export");
+        }
+
+        return outputStream -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            if (format == ExportFormat.CSV) {
+                writer.write(CSV_HEADER);
+            }
+            try {
+                repository.forEachHit(startFormatted, endFormatted, fetchSize, hit -> {
+                    try {
+                        write(writer, HitMapper.toHitDto(hit), format);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                log.warn("Export from {} to {} aborted: {}", start, end, e.getMessage());
+                throw e.getCause();
+            }
+            writer.flush();
+        };
+    }
+
+    private void write(Writer writer, HitDto hitDto, ExportFormat format) throws IOException {
+        if (format == ExportFormat.NDJSON) {
+            writer.write(objectMapper.writeValueAsString(hitDto));
+        } else {
+            writer.write(csvField(hitDto.getApp()));
+            writer.write(',');
+            writer.write(csvField(hitDto.getUri()));
+            writer.write(',');
+            writer.write(csvField(hitDto.getIp()));
+            writer.write(',');
+            writer.write(csvField(hitDto.getTimestamp()));
+        }
+        writer.write('\n');
+    }
+
+    private String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+
+        return value;
+    }
+
+    private LocalDateTime parse(String dateTime) {
+        try {
+            return LocalDateTime.parse(dateTime, dateTimeFormatter);
+        } catch (DateTimeParseException e) {
+            throw new BadRequestException(HttpStatus.BAD_REQUEST, "wrong time value " + dateTime);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package ru.practicum.statsserver.service;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ru.practicum.statsserver.storage.StatsRepository;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Service
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class HitPartitionService {
+    final StatsRepository repository;
+    final int daysAhead;
+    final int retentionDays;
+
+    public HitPartitionService(StatsRepository repository,
+                               @Value("${stats.partitions.days-ahead:7}") int daysAhead,
+                               @Value("${stats.partitions.retention-days:90}") int retentionDays) {
+        this.repository = repository;
+        this.daysAhead = daysAhead;
+        this.retentionDays = retentionDays;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${stats.partitions.cron:0 5 0 * * *}")
+    public void maintainPartitions() {
+        LocalDate today = LocalDate.now();
+        List<LocalDate> partitionDays = repository.findPartitionDays();
+        Set<LocalDate> existing = new HashSet<>(partitionDays);
+
+        for (LocalDate day = today; !day.isAfter(today.plusDays(daysAhead)); day = day.plusDays(1)) {
+            if (!existing.contains(day)) {
+                log.info("Create hits partition for {}", day);
+                repository.createPartition(day);
+            }
+        }
+
+        LocalDate retainedFrom = today.minusDays(retentionDays);
+        for (LocalDate day : partitionDays) {
+            if (day.isBefore(retainedFrom)) {
+                log.info("Drop hits partition for {}", day);
+                repository.dropPartition(day);
+            }
+        }
+        int deleted = repository.deleteFromDefaultPartitionBefore(retainedFrom);
+        if (deleted > 0) {
+            log.info("Delete {} hits before {} from default partition", deleted, retainedFrom);
+        }
+        int deletedAggregates = repository.deleteAggregatesBefore(retainedFrom);
+        if (deletedAggregates > 0) {
+            log.info("Delete {} rollup and sketch rows before {}", deletedAggregates, retainedFrom);
+        }
+    }
+}
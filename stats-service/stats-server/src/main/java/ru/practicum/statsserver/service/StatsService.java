@@ -4,13 +4,25 @@ import ru.practicum.statsdto.Stat;
 import ru.practicum.statsserver.model.Hit;
 
 import java.util.List;
+import java.util.Map;
 
 public interface StatsService {
 
     Hit add(Hit hit);
 
+    int addAll(List<Hit> hits);
+
     List<Stat> get(String start,
                    String end,
                    List<String> uris,
-                   boolean unique);
+                   boolean unique,
+                   boolean approximate);
+
+    Map<String, Integer> getHitsByUri(String start,
+                                      String end,
+                                      List<String> uris,
+                                      boolean unique,
+                                      boolean approximate);
+
+    List<Stat> getTop(String window, int n);
 }
@@ -1,11 +1,15 @@
 package ru.practicum.statsserver.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import ru.practicum.statsdto.Stat;
 import ru.practicum.statsserver.exception.BadRequestException;
 import ru.practicum.statsserver.model.Hit;
@@ -14,49 +18,146 @@ import ru.practicum.statsserver.storage.StatsRepository;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 @Service
 @AllArgsConstructor
 @FieldDefaults(level = AccessLevel.PRIVATE)
 @Slf4j
+@Timed("service.calls")
 public class StatsServiceImpl implements StatsService {
+    static final Pattern WINDOW_PATTERN = Pattern.compile("(\\d{1,4})([mh])");
 
     final StatsRepository repository;
+    final UniqueVisitorSketches uniqueVisitorSketches;
+    final TrendingUris trendingUris;
     final DateTimeFormatter dateTimeFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
     @Override
     public Hit add(Hit hit) {
-        return repository.save(hit);
+        Hit savedHit = repository.save(hit);
+        afterCommit(() -> {
+            uniqueVisitorSketches.add(savedHit);
+            trendingUris.add(savedHit);
+        });
+
+        return savedHit;
+    }
+
+    @Override
+    @Transactional
+    public int addAll(List<Hit> hits) {
+        int inserted = repository.insertAll(hits);
+        afterCommit(() -> {
+            hits.forEach(uniqueVisitorSketches::add);
+            hits.forEach(trendingUris::add);
+        });
+
+        return inserted;
     }
 
     @Override
-    public List<Stat> get(String start, String end, List<String> uris, boolean unique) {
+    public List<Stat> get(String start, String end, List<String> uris, boolean unique, boolean approximate) {
+        if (uris == null) {
+            uris = new ArrayList<>();
+        }
         if (start.isBlank() && end.isBlank()) {
-            return repository.countHitsWithoutTime(uris);
+            return repository.countAllHitsFromRollups(uris);
         }
         LocalDateTime startFormatted = LocalDateTime.parse(start, dateTimeFormatter);
         LocalDateTime endFormatted = LocalDateTime.parse(end, dateTimeFormatter);
         throwIfDateTimeNotValid(startFormatted, endFormatted);
         List<Stat> statistic;
-        if (uris == null) {
-            uris = new ArrayList<>();
-        }
-        if (unique) {
+        if (unique && approximate) {
+            log.info("Find statistic approximate unique, uri = {}", uris);
+            statistic = uniqueVisitorSketches.countUnique(startFormatted, endFormatted, uris);
+        } else if (unique) {
             log.info("Find statistic unique, uri = {}", uris);
             statistic = uris.isEmpty() ?
                     repository.countHitsUnique(startFormatted, endFormatted) :
                     repository.countHitsUnique(startFormatted, endFormatted, uris);
         } else {
             log.info("Find statistic non unique, uri = {}", uris);
-            statistic = uris.isEmpty() ?
-                    repository.countHits(startFormatted, endFormatted) :
-                    repository.countHits(startFormatted, endFormatted, uris);
+            statistic = repository.countHitsFromRollups(startFormatted, endFormatted, uris);
         }
 
         return statistic;
     }
 
+    @Override
+    public Map<String, Integer> getHitsByUri(String start,
+                                             String end,
+                                             List<String> uris,
+                                             boolean unique,
+                                             boolean approximate) {
+        if (unique) {
+            return getUniqueByUri(start, end, uris == null ? new ArrayList<>() : uris, approximate);
+        }
+        Map<String, Integer> hitsByUri = new LinkedHashMap<>();
+        for (Stat stat : get(start, end, uris, unique, approximate)) {
+            hitsByUri.merge(stat.getUri(), stat.getHits(), Integer::sum);
+        }
+
+        return hitsByUri;
+    }
+
+    /**
+     * Distinct ips are counted per uri across apps; summing per-app unique counts would count an ip
+     * that used two apps twice.
+     */
+    private Map<String, Integer> getUniqueByUri(String start, String end, List<String> uris, boolean approximate) {
+        if (start.isBlank() && end.isBlank()) {
+            log.info("Find unique hits by uri over all time, uri = {}", uris);
+            return repository.countUniqueIpsByUri(null, null, uris);
+        }
+        LocalDateTime startFormatted = LocalDateTime.parse(start, dateTimeFormatter);
+        LocalDateTime endFormatted = LocalDateTime.parse(end, dateTimeFormatter);
+        throwIfDateTimeNotValid(startFormatted, endFormatted);
+        if (approximate) {
+            log.info("Find approximate unique hits by uri, uri = {}", uris);
+            return uniqueVisitorSketches.countUniqueByUri(startFormatted, endFormatted, uris);
+        }
+        log.info("Find unique hits by uri, uri = {}", uris);
+
+        return repository.countUniqueIpsByUri(startFormatted, endFormatted, uris);
+    }
+
+    @Override
+    public List<Stat> getTop(String window, int n) {
+        Matcher matcher = WINDOW_PATTERN.matcher(window);
+        if (!matcher.matches() || n <= 0) {
+            throw new BadRequestException(HttpStatus.BAD_REQUEST, "wrong window or size for top statistics");
+        }
+        int windowMinutes = Integer.parseInt(matcher.group(1)) * ("h".equals(matcher.group(2)) ? 60 : 1);
+        if (windowMinutes <= 0 || windowMinutes > trendingUris.getMaxWindowMinutes()) {
+            throw new BadRequestException(HttpStatus.BAD_REQUEST,
+                    "window must be between 1m and " + trendingUris.getMaxWindowMinutes() + "m");
+        }
+
+        return trendingUris.top(windowMinutes, n);
+    }
+
+    /**
+     * Sketches and trending summaries are kept in memory, so they take hits only once the hits are committed;
+     * otherwise a rolled back insert would still be counted and flushed to hits_hll.
+     */
+    private void afterCommit(Runnable update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update.run();
+            }
+        });
+    }
+
     private void throwIfDateTimeNotValid(LocalDateTime start, LocalDateTime end) {
         if (end.isBefore(start)) {
             log.info("end time {} is before start {}", end, start);
@@ -0,0 +1,206 @@
+package ru.practicum.statsserver.service;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.practicum.statsdto.Stat;
+import ru.practicum.statsserver.model.AppUri;
+import ru.practicum.statsserver.model.Hit;
+import ru.practicum.statsserver.util.SpaceSaving;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Most viewed uris over the last minutes. Uris are split between lock-striped shards by hash,
+ * and every shard keeps one Space-Saving summary per minute in a ring of the maximum window length.
+ * Shards never share a uri, so the top of the union is the top of the merged shards.
+ * <p>
+ * Closed minutes are merged over all shards once and kept in a ring, and the totals of a window over
+ * the closed minutes are cached until the minute changes, so a query only merges the current minute
+ * on top of them. A late hit for a closed minute marks it to be merged again.
+ */
+@Service
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class TrendingUris {
+    final Stripe[] stripes;
+    final int capacity;
+    final Clock clock;
+    @Getter
+    final int maxWindowMinutes;
+    final Set<Long> lateMinutes = ConcurrentHashMap.newKeySet();
+    final ReentrantLock summaryLock = new ReentrantLock();
+    final long[] closedMinutes;
+    final Map<AppUri, Long>[] closedCounts;
+    final Map<Integer, WindowSummary> windows = new HashMap<>();
+    long summaryMinute = Long.MIN_VALUE;
+
+    @Autowired
+    public TrendingUris(@Value("${stats.top.stripes:16}") int stripes,
+                        @Value("${stats.top.capacity:200}") int capacity,
+                        @Value("${stats.top.max-window-minutes:60}") int maxWindowMinutes) {
+        this(stripes, capacity, maxWindowMinutes, Clock.systemDefaultZone());
+    }
+
+    /**
+     * Tests pass a fixed clock to close minutes deterministically.
+     */
+    @SuppressWarnings("unchecked")
+    TrendingUris(int stripes, int capacity, int maxWindowMinutes, Clock clock) {
+        this.clock = clock;
+        this.stripes = new Stripe[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new Stripe(maxWindowMinutes);
+        }
+        this.capacity = capacity;
+        this.maxWindowMinutes = maxWindowMinutes;
+        this.closedMinutes = new long[maxWindowMinutes];
+        this.closedCounts = new Map[maxWindowMinutes];
+    }
+
+    public void add(Hit hit) {
+        if (hit.getTimestamp() == null) {
+            return;
+        }
+        long minute = epochMinute(hit.getTimestamp());
+        long now = epochMinute(LocalDateTime.now(clock));
+        if (minute > now || minute <= now - maxWindowMinutes) {
+            return;
+        }
+        AppUri key = new AppUri(hit.getApp(), hit.getUri());
+        Stripe stripe = stripes[Math.floorMod(key.hashCode(), stripes.length)];
+        stripe.lock.lock();
+        try {
+            stripe.slot(minute, capacity).add(key);
+        } finally {
+            stripe.lock.unlock();
+        }
+        if (minute < now) {
+            lateMinutes.add(minute);
+        }
+    }
+
+    /**
+     * Only the top n of the closed minutes and the uris hit in the current minute can make the top n of the window.
+     */
+    public List<Stat> top(int windowMinutes, int n) {
+        long now = epochMinute(LocalDateTime.now(clock));
+        WindowSummary closed = closedSummary(windowMinutes, now);
+        Map<AppUri, Long> current = mergeMinute(now);
+        Set<AppUri> candidates = new LinkedHashSet<>(closed.ranked.subList(0, Math.min(n, closed.ranked.size())));
+        candidates.addAll(current.keySet());
+
+        return candidates.stream()
+                .map(key -> Map.entry(key, closed.counts.getOrDefault(key, 0L) + current.getOrDefault(key, 0L)))
+                .sorted(Map.Entry.<AppUri, Long>comparingByValue(Comparator.reverseOrder()))
+                .limit(n)
+                .map(entry -> new Stat(entry.getKey().getApp(), entry.getKey().getUri(), entry.getValue().intValue()))
+                .collect(Collectors.toList());
+    }
+
+    private WindowSummary closedSummary(int windowMinutes, long now) {
+        summaryLock.lock();
+        try {
+            if (summaryMinute != now) {
+                summaryMinute = now;
+                windows.clear();
+                lateMinutes.removeIf(minute -> minute <= now - maxWindowMinutes);
+            }
+            boolean merged = false;
+            for (long minute = now - windowMinutes + 1; minute < now; minute++) {
+                int index = (int) Math.floorMod(minute, (long) closedMinutes.length);
+                boolean late = lateMinutes.remove(minute);
+                if (late || closedCounts[index] == null || closedMinutes[index] != minute) {
+                    closedCounts[index] = mergeMinute(minute);
+                    closedMinutes[index] = minute;
+                    merged = true;
+                }
+            }
+            if (merged) {
+                windows.clear();
+            }
+
+            return windows.computeIfAbsent(windowMinutes, window -> {
+                Map<AppUri, Long> counts = new HashMap<>();
+                for (long minute = now - window + 1; minute < now; minute++) {
+                    closedCounts[(int) Math.floorMod(minute, (long) closedMinutes.length)]
+                            .forEach((key, count) -> counts.merge(key, count, Long::sum));
+                }
+                return new WindowSummary(counts);
+            });
+        } finally {
+            summaryLock.unlock();
+        }
+    }
+
+    private Map<AppUri, Long> mergeMinute(long minute) {
+        Map<AppUri, Long> hits = new HashMap<>();
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                int index = (int) Math.floorMod(minute, (long) stripe.minutes.length);
+                if (stripe.counts[index] != null && stripe.minutes[index] == minute) {
+                    stripe.counts[index].forEach((key, count) -> hits.merge(key, count, Long::sum));
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+
+        return hits;
+    }
+
+    private static long epochMinute(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) / 60;
+    }
+
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    private static class WindowSummary {
+        Map<AppUri, Long> counts;
+        List<AppUri> ranked;
+
+        WindowSummary(Map<AppUri, Long> counts) {
+            this.counts = counts;
+            this.ranked = counts.entrySet().stream()
+                    .sorted(Map.Entry.<AppUri, Long>comparingByValue(Comparator.reverseOrder()))
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList());
+        }
+    }
+
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    private static class Stripe {
+        ReentrantLock lock = new ReentrantLock();
+        long[] minutes;
+        SpaceSaving<AppUri>[] counts;
+
+        @SuppressWarnings("unchecked")
+        Stripe(int slots) {
+            this.minutes = new long[slots];
+            this.counts = new SpaceSaving[slots];
+        }
+
+        SpaceSaving<AppUri> slot(long minute, int capacity) {
+            int index = (int) Math.floorMod(minute, (long) minutes.length);
+            if (counts[index] == null || minutes[index] != minute) {
+                minutes[index] = minute;
+                counts[index] = new SpaceSaving<>(capacity);
+            }
+
+            return counts[index];
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package ru.practicum.statsserver.service;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ru.practicum.statsdto.Stat;
+import ru.practicum.statsserver.model.Hit;
+import ru.practicum.statsserver.model.SketchKey;
+import ru.practicum.statsserver.storage.StatsRepository;
+import ru.practicum.statsserver.util.HyperLogLog;
+import ru.practicum.statsserver.util.TimeBuckets;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps one HyperLogLog sketch of visitor ips per app, uri and hour.
+ * Sketches are updated in memory at ingest and periodically merged into hits_hll.
+ * Merging is idempotent, so a sketch that is counted both from memory and from the table
+ * while it is being flushed does not change the estimate.
+ * A sketch is always in at least one of pending, flushing and the table, and readers look at them in that order,
+ * so a concurrent flush cannot hide it from a query.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class UniqueVisitorSketches {
+    final StatsRepository repository;
+    final ConcurrentMap<SketchKey, HyperLogLog> pending = new ConcurrentHashMap<>();
+    final ConcurrentMap<SketchKey, HyperLogLog> flushing = new ConcurrentHashMap<>();
+
+    public void add(Hit hit) {
+        if (hit.getTimestamp() == null || hit.getIp() == null) {
+            return;
+        }
+        SketchKey key = new SketchKey(hit.getTimestamp().truncatedTo(ChronoUnit.HOURS), hit.getApp(), hit.getUri());
+        pending.compute(key, (k, sketch) -> {
+            HyperLogLog updated = sketch != null ? sketch : new HyperLogLog();
+            updated.add(hit.getIp());
+            return updated;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${stats.unique.sketch-flush-interval-ms:5000}")
+    public void flush() {
+        for (SketchKey key : pending.keySet()) {
+            HyperLogLog[] moved = new HyperLogLog[1];
+            pending.computeIfPresent(key, (k, sketch) -> {
+                flushing.put(k, sketch);
+                moved[0] = sketch;
+                return null;
+            });
+            HyperLogLog sketch = moved[0];
+            if (sketch == null) {
+                continue;
+            }
+            try {
+                repository.mergeSketch(key, sketch);
+            } catch (RuntimeException e) {
+                log.warn("Failed to store sketch for {}: {}", key, e.getMessage());
+                pending.merge(key, sketch, (current, failed) -> {
+                    current.merge(failed);
+                    return current;
+                });
+            } finally {
+                flushing.remove(key);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    public List<Stat> countUnique(LocalDateTime start, LocalDateTime end, List<String> uris) {
+        return mergeSketches(start, end, uris, true).entrySet().stream()
+                .map(entry -> new Stat(entry.getKey().getApp(),
+                        entry.getKey().getUri(),
+                        estimate(entry.getValue())))
+                .sorted(Comparator.comparingInt(Stat::getHits).reversed())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Unique visitors per uri with the sketches of all apps merged, so an ip is counted once per uri.
+     */
+    public Map<String, Integer> countUniqueByUri(LocalDateTime start, LocalDateTime end, List<String> uris) {
+        Map<String, Integer> hitsByUri = new LinkedHashMap<>();
+        mergeSketches(start, end, uris, false).entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<SketchKey, HyperLogLog> entry) -> entry.getValue()
+                        .estimate()).reversed())
+                .forEach(entry -> hitsByUri.put(entry.getKey().getUri(), estimate(entry.getValue())));
+
+        return hitsByUri;
+    }
+
+    private Map<SketchKey, HyperLogLog> mergeSketches(LocalDateTime start,
+                                                      LocalDateTime end,
+                                                      List<String> uris,
+                                                      boolean byApp) {
+        LocalDateTime endExclusive = TimeBuckets.endExclusive(end);
+        LocalDateTime hourStart = TimeBuckets.ceil(start, ChronoUnit.HOURS);
+        LocalDateTime hourEnd = endExclusive.truncatedTo(ChronoUnit.HOURS);
+        if (!hourStart.isBefore(hourEnd)) {
+            hourStart = start;
+            hourEnd = start;
+        }
+        Map<SketchKey, HyperLogLog> merged = new HashMap<>();
+
+        mergeInMemory(pending, merged, hourStart, hourEnd, uris, byApp);
+        mergeInMemory(flushing, merged, hourStart, hourEnd, uris, byApp);
+        repository.forEachSketch(hourStart, hourEnd, uris,
+                (key, sketch) -> sketchOf(merged, key, byApp).merge(sketch));
+        repository.forEachDistinctIp(start, hourStart, hourEnd, endExclusive, uris,
+                (key, ip) -> sketchOf(merged, key, byApp).add(ip));
+
+        return merged;
+    }
+
+    private void mergeInMemory(ConcurrentMap<SketchKey, HyperLogLog> sketches,
+                               Map<SketchKey, HyperLogLog> merged,
+                               LocalDateTime hourStart,
+                               LocalDateTime hourEnd,
+                               List<String> uris,
+                               boolean byApp) {
+        for (SketchKey key : sketches.keySet()) {
+            if (key.getBucket().isBefore(hourStart)
+                    || !key.getBucket().isBefore(hourEnd)
+                    || (!uris.isEmpty() && !uris.contains(key.getUri()))) {
+                continue;
+            }
+            sketches.computeIfPresent(key, (k, sketch) -> {
+                sketchOf(merged, k, byApp).merge(sketch);
+                return sketch;
+            });
+        }
+    }
+
+    private HyperLogLog sketchOf(Map<SketchKey, HyperLogLog> merged, SketchKey key, boolean byApp) {
+        return merged.computeIfAbsent(new SketchKey(null, byApp ? key.getApp() : null, key.getUri()),
+                k -> new HyperLogLog());
+    }
+
+    private static int estimate(HyperLogLog sketch) {
+        return (int) Math.min(sketch.estimate(), Integer.MAX_VALUE);
+    }
+}
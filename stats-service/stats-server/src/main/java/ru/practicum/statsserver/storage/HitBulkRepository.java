@@ -0,0 +1,10 @@
+package ru.practicum.statsserver.storage;
+
+import ru.practicum.statsserver.model.Hit;
+
+import java.util.List;
+
+public interface HitBulkRepository {
+
+    int insertAll(List<Hit> hits);
+}
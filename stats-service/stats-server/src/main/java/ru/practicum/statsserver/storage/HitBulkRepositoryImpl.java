@@ -0,0 +1,61 @@
+package ru.practicum.statsserver.storage;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.statsserver.model.Hit;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Writes hits with multi-row INSERT statements, one round trip per thousand rows,
+ * without building a managed entity for every hit.
+ */
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class HitBulkRepositoryImpl implements HitBulkRepository {
+    static final int ROWS_PER_STATEMENT = 1000;
+    static final String INSERT_PREFIX = "INSERT INTO hits (app, uri, ip, req_time) VALUES ";
+    static final String ROW_PLACEHOLDER = "(?, ?, ?, ?)";
+
+    final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int insertAll(List<Hit> hits) {
+        int inserted = 0;
+        for (int from = 0; from < hits.size(); from += ROWS_PER_STATEMENT) {
+            List<Hit> chunk = hits.subList(from, Math.min(from + ROWS_PER_STATEMENT, hits.size()));
+            inserted += jdbcTemplate.update(insertStatement(chunk.size()), toParams(chunk));
+        }
+
+        return inserted;
+    }
+
+    private String insertStatement(int rows) {
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + rows * (ROW_PLACEHOLDER.length() + 2));
+        sql.append(INSERT_PREFIX);
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(ROW_PLACEHOLDER);
+        }
+
+        return sql.toString();
+    }
+
+    private Object[] toParams(List<Hit> hits) {
+        Object[] params = new Object[hits.size() * 4];
+        int i = 0;
+        for (Hit hit : hits) {
+            params[i++] = hit.getApp();
+            params[i++] = hit.getUri();
+            params[i++] = hit.getIp();
+            params[i++] = Timestamp.valueOf(hit.getTimestamp());
+        }
+
+        return params;
+    }
+}
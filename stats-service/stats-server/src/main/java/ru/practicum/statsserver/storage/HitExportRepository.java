@@ -0,0 +1,11 @@
+package ru.practicum.statsserver.storage;
+
+import ru.practicum.statsserver.model.Hit;
+
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+public interface HitExportRepository {
+
+    void forEachHit(LocalDateTime start, LocalDateTime end, int fetchSize, Consumer<Hit> consumer);
+}
@@ -0,0 +1,54 @@
+package ru.practicum.statsserver.storage;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.statsserver.model.Hit;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class HitExportRepositoryImpl implements HitExportRepository {
+
+    final JdbcTemplate jdbcTemplate;
+
+    /**
+     * The PostgreSQL driver only reads through a server-side cursor when a fetch size is set
+     * and auto-commit is off, hence the transaction.
+     * Sorting is disabled for the transaction so that a range over many partitions is read as a merge of
+     * (req_time, id) index scans and rows start streaming at once, instead of after a sort of the whole range.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachHit(LocalDateTime start, LocalDateTime end, int fetchSize, Consumer<Hit> consumer) {
+        jdbcTemplate.execute("SET LOCAL enable_sort = off");
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement("SELECT id, app, uri, ip, req_time " +
+                            "FROM hits " +
+                            "WHERE req_time BETWEEN ? AND ? " +
+                            "ORDER BY req_time, id",
+                    ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            statement.setTimestamp(1, Timestamp.valueOf(start));
+            statement.setTimestamp(2, Timestamp.valueOf(end));
+
+            return statement;
+        }, rs -> {
+            consumer.accept(Hit.builder()
+                    .id(rs.getLong("id"))
+                    .app(rs.getString("app"))
+                    .uri(rs.getString("uri"))
+                    .ip(rs.getString("ip"))
+                    .timestamp(rs.getTimestamp("req_time").toLocalDateTime())
+                    .build());
+        });
+    }
+}
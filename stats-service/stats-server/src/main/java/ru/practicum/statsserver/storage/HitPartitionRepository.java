@@ -0,0 +1,17 @@
+package ru.practicum.statsserver.storage;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface HitPartitionRepository {
+
+    List<LocalDate> findPartitionDays();
+
+    void createPartition(LocalDate day);
+
+    void dropPartition(LocalDate day);
+
+    int deleteFromDefaultPartitionBefore(LocalDate day);
+
+    int deleteAggregatesBefore(LocalDate day);
+}
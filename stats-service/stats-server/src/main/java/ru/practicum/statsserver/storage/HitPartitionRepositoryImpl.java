@@ -0,0 +1,92 @@
+package ru.practicum.statsserver.storage;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Manages the daily partitions of hits. A partition is named hits_pYYYYMMDD and covers one day of req_time;
+ * rows outside of all daily partitions land in hits_default.
+ */
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class HitPartitionRepositoryImpl implements HitPartitionRepository {
+    static final String PARTITION_PREFIX = "hits_p";
+    static final DateTimeFormatter PARTITION_SUFFIX_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd");
+    static final List<String> AGGREGATE_TABLES = List.of("hits_minute", "hits_hour", "hits_hll");
+
+    final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<LocalDate> findPartitionDays() {
+        List<String> names = jdbcTemplate.queryForList("SELECT c.relname " +
+                "FROM pg_inherits AS i " +
+                "JOIN pg_class AS c ON c.oid = i.inhrelid " +
+                "JOIN pg_class AS p ON p.oid = i.inhparent " +
+                "WHERE p.relname = 'hits' AND c.relname ~ '^hits_p[0-9]{8}$'", String.class);
+
+        return names.stream()
+                .map(name -> LocalDate.parse(name.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX_FORMATTER))
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Creates the partition detached, moves the day's rows out of hits_default into it and only then attaches it,
+     * because a partition cannot be created while the default partition holds rows of its range.
+     * Rows are moved between partitions directly, so the rollup trigger on hits does not count them again.
+     */
+    @Override
+    @Transactional
+    public void createPartition(LocalDate day) {
+        String partition = partitionName(day);
+        String from = day.toString();
+        String to = day.plusDays(1).toString();
+
+        jdbcTemplate.execute("CREATE TABLE " + partition + " (LIKE hits INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+        jdbcTemplate.update("WITH moved AS (" +
+                "DELETE FROM hits_default " +
+                "WHERE req_time >= CAST(? AS timestamp) AND req_time < CAST(? AS timestamp) " +
+                "RETURNING *) " +
+                "INSERT INTO " + partition + " SELECT * FROM moved", from, to);
+        jdbcTemplate.execute("ALTER TABLE hits ATTACH PARTITION " + partition +
+                " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+    }
+
+    @Override
+    public void dropPartition(LocalDate day) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + partitionName(day));
+    }
+
+    @Override
+    public int deleteFromDefaultPartitionBefore(LocalDate day) {
+        return jdbcTemplate.update("DELETE FROM hits_default WHERE req_time < CAST(? AS timestamp)", day.toString());
+    }
+
+    /**
+     * Deletes the minute and hour rollups and the unique visitor sketches of buckets before the day;
+     * bucket leads the primary key of all three tables.
+     */
+    @Override
+    @Transactional
+    public int deleteAggregatesBefore(LocalDate day) {
+        int deleted = 0;
+        for (String table : AGGREGATE_TABLES) {
+            deleted += jdbcTemplate.update("DELETE FROM " + table + " WHERE bucket < CAST(? AS timestamp)",
+                    day.toString());
+        }
+
+        return deleted;
+    }
+
+    private String partitionName(LocalDate day) {
+        return PARTITION_PREFIX + day.format(PARTITION_SUFFIX_FORMATTER);
+    }
+}
@@ -0,0 +1,13 @@
+package ru.practicum.statsserver.storage;
+
+import ru.practicum.statsdto.Stat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface HitRollupRepository {
+
+    List<Stat> countHitsFromRollups(LocalDateTime start, LocalDateTime end, List<String> uris);
+
+    List<Stat> countAllHitsFromRollups(List<String> uris);
+}
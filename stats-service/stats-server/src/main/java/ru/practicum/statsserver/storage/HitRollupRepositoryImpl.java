@@ -0,0 +1,89 @@
+package ru.practicum.statsserver.storage;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import ru.practicum.statsdto.Stat;
+import ru.practicum.statsserver.util.TimeBuckets;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Answers non-unique hit counts from the hits_hour and hits_minute rollups, which the
+ * rollup_hits trigger keeps up to date. Whole hours come from hits_hour, the remaining
+ * whole minutes from hits_minute, and only the partial minutes at both edges of the
+ * range are counted from raw hits.
+ */
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class HitRollupRepositoryImpl implements HitRollupRepository {
+    static final String URI_FILTER = "AND uri IN (:uris) ";
+    static final RowMapper<Stat> STAT_ROW_MAPPER = (rs, rowNum) ->
+            new Stat(rs.getString("app"), rs.getString("uri"), rs.getInt("hits"));
+
+    final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<Stat> countHitsFromRollups(LocalDateTime start, LocalDateTime end, List<String> uris) {
+        LocalDateTime endExclusive = TimeBuckets.endExclusive(end);
+        LocalDateTime minuteStart = TimeBuckets.ceil(start, ChronoUnit.MINUTES);
+        LocalDateTime minuteEnd = endExclusive.truncatedTo(ChronoUnit.MINUTES);
+        if (!minuteStart.isBefore(minuteEnd)) {
+            minuteStart = start;
+            minuteEnd = start;
+        }
+        LocalDateTime hourStart = TimeBuckets.ceil(minuteStart, ChronoUnit.HOURS);
+        LocalDateTime hourEnd = minuteEnd.truncatedTo(ChronoUnit.HOURS);
+        if (!hourStart.isBefore(hourEnd)) {
+            hourStart = minuteStart;
+            hourEnd = minuteStart;
+        }
+        String uriFilter = uris.isEmpty() ? "" : URI_FILTER;
+
+        String sql = "SELECT s.app AS app, s.uri AS uri, SUM(s.hits) AS hits " +
+                "FROM (" +
+                "SELECT app, uri, hits " +
+                "FROM hits_hour " +
+                "WHERE bucket >= :hourStart AND bucket < :hourEnd " + uriFilter +
+                "UNION ALL " +
+                "SELECT app, uri, hits " +
+                "FROM hits_minute " +
+                "WHERE ((bucket >= :minuteStart AND bucket < :hourStart) " +
+                "OR (bucket >= :hourEnd AND bucket < :minuteEnd)) " + uriFilter +
+                "UNION ALL " +
+                "SELECT app, uri, COUNT(*) AS hits " +
+                "FROM hits " +
+                "WHERE ((req_time >= :start AND req_time < :minuteStart) " +
+                "OR (req_time >= :minuteEnd AND req_time < :endExclusive)) " + uriFilter +
+                "GROUP BY app, uri" +
+                ") AS s " +
+                "GROUP BY s.app, s.uri " +
+                "ORDER BY hits DESC";
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("start", start)
+                .addValue("minuteStart", minuteStart)
+                .addValue("hourStart", hourStart)
+                .addValue("hourEnd", hourEnd)
+                .addValue("minuteEnd", minuteEnd)
+                .addValue("endExclusive", endExclusive)
+                .addValue("uris", uris);
+
+        return jdbcTemplate.query(sql, params, STAT_ROW_MAPPER);
+    }
+
+    @Override
+    public List<Stat> countAllHitsFromRollups(List<String> uris) {
+        String sql = "SELECT app, uri, SUM(hits) AS hits " +
+                "FROM hits_hour " +
+                "WHERE TRUE " + (uris.isEmpty() ? "" : URI_FILTER) +
+                "GROUP BY app, uri " +
+                "ORDER BY hits DESC";
+
+        return jdbcTemplate.query(sql, new MapSqlParameterSource("uris", uris), STAT_ROW_MAPPER);
+    }
+}
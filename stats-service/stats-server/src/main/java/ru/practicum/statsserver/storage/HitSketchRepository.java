@@ -0,0 +1,25 @@
+package ru.practicum.statsserver.storage;
+
+import ru.practicum.statsserver.model.SketchKey;
+import ru.practicum.statsserver.util.HyperLogLog;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+public interface HitSketchRepository {
+
+    void mergeSketch(SketchKey key, HyperLogLog sketch);
+
+    void forEachSketch(LocalDateTime bucketStart,
+                       LocalDateTime bucketEnd,
+                       List<String> uris,
+                       BiConsumer<SketchKey, HyperLogLog> consumer);
+
+    void forEachDistinctIp(LocalDateTime start,
+                           LocalDateTime bucketStart,
+                           LocalDateTime bucketEnd,
+                           LocalDateTime endExclusive,
+                           List<String> uris,
+                           BiConsumer<SketchKey, String> consumer);
+}
@@ -0,0 +1,90 @@
+package ru.practicum.statsserver.storage;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.statsserver.model.SketchKey;
+import ru.practicum.statsserver.util.HyperLogLog;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class HitSketchRepositoryImpl implements HitSketchRepository {
+    static final String URI_FILTER = "AND uri IN (:uris) ";
+
+    final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public void mergeSketch(SketchKey key, HyperLogLog sketch) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("bucket", key.getBucket())
+                .addValue("app", key.getApp())
+                .addValue("uri", key.getUri())
+                .addValue("sketch", sketch.toBytes());
+        int inserted = jdbcTemplate.update("INSERT INTO hits_hll (bucket, app, uri, sketch) " +
+                "VALUES (:bucket, :app, :uri, :sketch) " +
+                "ON CONFLICT (bucket, app, uri) DO NOTHING", params);
+        if (inserted > 0) {
+            return;
+        }
+        byte[] stored = jdbcTemplate.queryForObject("SELECT sketch FROM hits_hll " +
+                "WHERE bucket = :bucket AND app = :app AND uri = :uri " +
+                "FOR UPDATE", params, byte[].class);
+        HyperLogLog merged = HyperLogLog.fromBytes(stored);
+        merged.merge(sketch);
+        jdbcTemplate.update("UPDATE hits_hll SET sketch = :sketch " +
+                "WHERE bucket = :bucket AND app = :app AND uri = :uri",
+                params.addValue("sketch", merged.toBytes()));
+    }
+
+    @Override
+    public void forEachSketch(LocalDateTime bucketStart,
+                              LocalDateTime bucketEnd,
+                              List<String> uris,
+                              BiConsumer<SketchKey, HyperLogLog> consumer) {
+        String sql = "SELECT bucket, app, uri, sketch " +
+                "FROM hits_hll " +
+                "WHERE bucket >= :bucketStart AND bucket < :bucketEnd " + (uris.isEmpty() ? "" : URI_FILTER);
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("bucketStart", bucketStart)
+                .addValue("bucketEnd", bucketEnd)
+                .addValue("uris", uris);
+
+        jdbcTemplate.query(sql, params, rs -> {
+            SketchKey key = new SketchKey(rs.getTimestamp("bucket").toLocalDateTime(),
+                    rs.getString("app"),
+                    rs.getString("uri"));
+            consumer.accept(key, HyperLogLog.fromBytes(rs.getBytes("sketch")));
+        });
+    }
+
+    @Override
+    public void forEachDistinctIp(LocalDateTime start,
+                                  LocalDateTime bucketStart,
+                                  LocalDateTime bucketEnd,
+                                  LocalDateTime endExclusive,
+                                  List<String> uris,
+                                  BiConsumer<SketchKey, String> consumer) {
+        String sql = "SELECT DISTINCT app, uri, ip " +
+                "FROM hits " +
+                "WHERE ((req_time >= :start AND req_time < :bucketStart) " +
+                "OR (req_time >= :bucketEnd AND req_time < :endExclusive)) " + (uris.isEmpty() ? "" : URI_FILTER);
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("start", start)
+                .addValue("bucketStart", bucketStart)
+                .addValue("bucketEnd", bucketEnd)
+                .addValue("endExclusive", endExclusive)
+                .addValue("uris", uris);
+
+        jdbcTemplate.query(sql, params, rs -> {
+            consumer.accept(new SketchKey(null, rs.getString("app"), rs.getString("uri")), rs.getString("ip"));
+        });
+    }
+}
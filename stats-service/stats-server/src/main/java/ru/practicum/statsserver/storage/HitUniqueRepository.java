@@ -0,0 +1,10 @@
+package ru.practicum.statsserver.storage;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+public interface HitUniqueRepository {
+
+    Map<String, Integer> countUniqueIpsByUri(LocalDateTime start, LocalDateTime end, List<String> uris);
+}
@@ -0,0 +1,45 @@
+package ru.practicum.statsserver.storage;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts distinct ips per uri over all apps, so an ip that reached a uri through several apps is counted once.
+ * Without start and end the whole history is counted.
+ */
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class HitUniqueRepositoryImpl implements HitUniqueRepository {
+    static final String URI_FILTER = "AND uri IN (:uris) ";
+
+    final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public Map<String, Integer> countUniqueIpsByUri(LocalDateTime start, LocalDateTime end, List<String> uris) {
+        String sql = "SELECT uri, COUNT(DISTINCT ip) AS hits " +
+                "FROM hits " +
+                "WHERE TRUE " +
+                (start != null && end != null ? "AND req_time BETWEEN :start AND :end " : "") +
+                (uris.isEmpty() ? "" : URI_FILTER) +
+                "GROUP BY uri " +
+                "ORDER BY hits DESC";
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("start", start)
+                .addValue("end", end)
+                .addValue("uris", uris);
+        Map<String, Integer> hitsByUri = new LinkedHashMap<>();
+        jdbcTemplate.query(sql, params, rs -> {
+            hitsByUri.put(rs.getString("uri"), rs.getInt("hits"));
+        });
+
+        return hitsByUri;
+    }
+}
@@ -10,20 +10,17 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
-public interface StatsRepository extends JpaRepository<Hit, Integer> {
-
-    @Query(name = "GetNotUniqueIpNoUriStat", nativeQuery = true)
-    List<Stat> countHits(LocalDateTime start, LocalDateTime end);
-
-    @Query(name = "GetNotUniqueIpStat", nativeQuery = true)
-    List<Stat> countHits(LocalDateTime start, LocalDateTime end, List<String> uris);
+public interface StatsRepository extends JpaRepository<Hit, Long>,
+        HitBulkRepository,
+        HitRollupRepository,
+        HitSketchRepository,
+        HitPartitionRepository,
+        HitExportRepository,
+        HitUniqueRepository {
 
     @Query(name = "GetUniqueIpNoUriStat", nativeQuery = true)
     List<Stat> countHitsUnique(LocalDateTime start, LocalDateTime end);
 
     @Query(name = "GetUniqueIpStat", nativeQuery = true)
     List<Stat> countHitsUnique(LocalDateTime start, LocalDateTime end, List<String> uris);
-
-    @Query(name = "GetWithoutTime", nativeQuery = true)
-    List<Stat> countHitsWithoutTime(List<String> uris);
 }
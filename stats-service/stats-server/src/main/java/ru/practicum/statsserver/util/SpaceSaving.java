@@ -0,0 +1,61 @@
+package ru.practicum.statsserver.util;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Space-Saving heavy-hitter summary (Metwally et al.) holding at most capacity counters.
+ * An item that is not tracked replaces the smallest counter and inherits its count,
+ * so counts are overestimated by at most the count of the smallest counter.
+ * Not thread-safe.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class SpaceSaving<T> {
+    final int capacity;
+    final Map<T, Counter<T>> counters = new HashMap<>();
+    final TreeSet<Counter<T>> byCount = new TreeSet<>(Comparator.<Counter<T>>comparingLong(counter -> counter.count)
+            .thenComparingLong(counter -> counter.sequence));
+    long sequence;
+
+    public SpaceSaving(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public void add(T item) {
+        Counter<T> counter = counters.get(item);
+        if (counter != null) {
+            byCount.remove(counter);
+            counter.count++;
+            byCount.add(counter);
+            return;
+        }
+        long count = 1;
+        if (counters.size() >= capacity) {
+            Counter<T> min = byCount.pollFirst();
+            counters.remove(min.item);
+            count += min.count;
+        }
+        counter = new Counter<>(item, count, sequence++);
+        counters.put(item, counter);
+        byCount.add(counter);
+    }
+
+    public void forEach(ObjLongConsumer<T> consumer) {
+        counters.values().forEach(counter -> consumer.accept(counter.item, counter.count));
+    }
+
+    @AllArgsConstructor
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    private static class Counter<T> {
+        final T item;
+        long count;
+        final long sequence;
+    }
+}
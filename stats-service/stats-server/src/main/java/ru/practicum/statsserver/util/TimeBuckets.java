@@ -0,0 +1,20 @@
+package ru.practicum.statsserver.util;
+
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+@NoArgsConstructor
+public class TimeBuckets {
+
+    public static LocalDateTime ceil(LocalDateTime dateTime, ChronoUnit unit) {
+        LocalDateTime truncated = dateTime.truncatedTo(unit);
+
+        return truncated.isBefore(dateTime) ? truncated.plus(1, unit) : truncated;
+    }
+
+    public static LocalDateTime endExclusive(LocalDateTime end) {
+        return end.plus(1, ChronoUnit.MICROS);
+    }
+}
@@ -1,12 +1,78 @@
 DROP TABLE IF EXISTS
-    hits
+    hits,
+    hits_minute,
+    hits_hour,
+    hits_hll
 CASCADE;
 
 CREATE TABLE IF NOT EXISTS hits (
-    id          serial, --идентификатор
+    id          bigserial, --идентификатор
     app         varchar(25), --наименование сервиса
     uri         text,    --uri для которого был запрос
     ip          varchar(15),    --ip адрес с которого был запрос
     req_time    timestamp without time zone, --время запроса
-    CONSTRAINT pk_hits PRIMARY KEY (id)
-);;
\ No newline at end of file
+    CONSTRAINT pk_hits PRIMARY KEY (id, req_time)
+) PARTITION BY RANGE (req_time);
+
+CREATE TABLE IF NOT EXISTS hits_default PARTITION OF hits DEFAULT; --запросы вне созданных дневных секций
+
+CREATE INDEX IF NOT EXISTS idx_hits_req_time_id ON hits (req_time, id); --упорядоченная выгрузка /stats/export без сортировки
+
+ALTER SEQUENCE hits_id_seq INCREMENT BY 50; --совпадает с allocationSize генератора Hit
+
+CREATE TABLE IF NOT EXISTS hits_minute (
+    bucket      timestamp without time zone, --начало минуты
+    app         varchar(25), --наименование сервиса
+    uri         text, --uri для которого был запрос
+    hits        bigint, --количество запросов за минуту
+    CONSTRAINT pk_hits_minute PRIMARY KEY (bucket, app, uri)
+);
+
+CREATE TABLE IF NOT EXISTS hits_hour (
+    bucket      timestamp without time zone, --начало часа
+    app         varchar(25), --наименование сервиса
+    uri         text, --uri для которого был запрос
+    hits        bigint, --количество запросов за час
+    CONSTRAINT pk_hits_hour PRIMARY KEY (bucket, app, uri)
+);
+
+CREATE TABLE IF NOT EXISTS hits_hll (
+    bucket      timestamp without time zone, --начало часа
+    app         varchar(25), --наименование сервиса
+    uri         text, --uri для которого был запрос
+    sketch      bytea, --регистры HyperLogLog по ip адресам за час
+    CONSTRAINT pk_hits_hll PRIMARY KEY (bucket, app, uri)
+);
+
+CREATE OR REPLACE FUNCTION rollup_hits()
+   RETURNS TRIGGER
+AS $$
+BEGIN
+
+INSERT INTO hits_minute (bucket, app, uri, hits)
+SELECT date_trunc('minute', req_time), app, uri, COUNT(*)
+FROM new_hits
+WHERE req_time IS NOT NULL
+GROUP BY 1, 2, 3
+ORDER BY 1, 2, 3
+ON CONFLICT (bucket, app, uri) DO UPDATE
+SET hits = hits_minute.hits + EXCLUDED.hits;
+
+INSERT INTO hits_hour (bucket, app, uri, hits)
+SELECT date_trunc('hour', req_time), app, uri, COUNT(*)
+FROM new_hits
+WHERE req_time IS NOT NULL
+GROUP BY 1, 2, 3
+ORDER BY 1, 2, 3
+ON CONFLICT (bucket, app, uri) DO UPDATE
+SET hits = hits_hour.hits + EXCLUDED.hits;
+
+RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE TRIGGER rollup_hits_trigger
+    AFTER INSERT ON hits
+    REFERENCING NEW TABLE AS new_hits
+    FOR EACH STATEMENT
+    EXECUTE PROCEDURE rollup_hits();;
@@ -0,0 +1,79 @@
+package ru.practicum.statsserver;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import ru.practicum.statsdto.HitDto;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs stats-server on a random port against an embedded PostgreSQL started once per test run,
+ * so the partitions, the rollup trigger and the native queries of schema.sql behave as in production.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public abstract class StatsIntegrationTest {
+    protected static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    static final EmbeddedPostgres POSTGRES = startPostgres();
+
+    @Autowired
+    protected TestRestTemplate rest;
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> POSTGRES.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+    }
+
+    protected static HitDto hit(String uri, String ip, LocalDateTime timestamp) {
+        return new HitDto("ewm-main-service", uri, ip, timestamp.format(DATE_TIME_FORMATTER));
+    }
+
+    /**
+     * Sends the hits in one POST /hits, which stores them with a single multi-row insert.
+     */
+    protected void postHits(List<HitDto> hits) {
+        ResponseEntity<Void> response = rest.postForEntity("/hits", hits, Void.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+    }
+
+    protected long countHits(String uri, LocalDateTime start, LocalDateTime end) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM hits " +
+                        "WHERE uri = ? AND req_time >= ? AND req_time <= ?",
+                Long.class, uri, Timestamp.valueOf(start), Timestamp.valueOf(end));
+    }
+
+    protected long countDistinctIps(String uri, LocalDateTime start, LocalDateTime end) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(DISTINCT ip) FROM hits " +
+                        "WHERE uri = ? AND req_time >= ? AND req_time <= ?",
+                Long.class, uri, Timestamp.valueOf(start), Timestamp.valueOf(end));
+    }
+
+    protected static String format(LocalDateTime dateTime) {
+        return dateTime.format(DATE_TIME_FORMATTER);
+    }
+
+    private static EmbeddedPostgres startPostgres() {
+        try {
+            return EmbeddedPostgres.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package ru.practicum.statsserver.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import ru.practicum.statsserver.StatsIntegrationTest;
+import ru.practicum.statsserver.storage.StatsRepository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Partition maintenance against the real schema: hits_default rows move into a new daily partition without being
+ * rolled up again, maintenance can be rerun, and partitions and aggregates past the retention window are deleted.
+ */
+class HitPartitionServiceTest extends StatsIntegrationTest {
+    static final int RETENTION_DAYS = 90;
+
+    @Autowired
+    HitPartitionService hitPartitionService;
+    @Autowired
+    StatsRepository repository;
+    @Autowired
+    UniqueVisitorSketches uniqueVisitorSketches;
+
+    String uri;
+
+    @BeforeEach
+    void createUri() {
+        uri = "/events/" + UUID.randomUUID();
+    }
+
+    @Test
+    void createPartitionMovesRowsOutOfDefault() {
+        LocalDate day = LocalDate.now().plusDays(30);
+        LocalDate nextDay = day.plusDays(1);
+        postHits(List.of(
+                hit(uri, "10.3.0.1", day.atTime(0, 0)),
+                hit(uri, "10.3.0.2", day.atTime(12, 30, 15)),
+                hit(uri, "10.3.0.3", day.atTime(23, 59, 59)),
+                hit(uri, "10.3.0.4", nextDay.atTime(0, 0))));
+        assertThat(countIn("hits_default")).isEqualTo(4);
+        long minuteHits = sumRollup("hits_minute");
+        long hourHits = sumRollup("hits_hour");
+
+        repository.createPartition(day);
+
+        assertThat(repository.findPartitionDays()).contains(day);
+        assertThat(countIn(partitionName(day))).isEqualTo(3);
+        assertThat(countIn("hits_default")).isEqualTo(1);
+        assertThat(countHits(uri, day.atStartOfDay(), nextDay.atTime(23, 59, 59))).isEqualTo(4);
+        assertThat(sumRollup("hits_minute")).isEqualTo(minuteHits).isEqualTo(4);
+        assertThat(sumRollup("hits_hour")).isEqualTo(hourHits).isEqualTo(4);
+    }
+
+    @Test
+    void maintenanceCanBeRerun() {
+        List<LocalDate> partitionDays = repository.findPartitionDays();
+        assertThat(partitionDays).contains(LocalDate.now(), LocalDate.now().plusDays(7));
+
+        hitPartitionService.maintainPartitions();
+        hitPartitionService.maintainPartitions();
+
+        assertThat(repository.findPartitionDays()).isEqualTo(partitionDays);
+    }
+
+    @Test
+    void maintenanceDropsDataPastRetention() {
+        LocalDate retainedFrom = LocalDate.now().minusDays(RETENTION_DAYS);
+        LocalDate expiredDay = retainedFrom.minusDays(2);
+        LocalDate expiredDefaultDay = retainedFrom.minusDays(5);
+        repository.createPartition(expiredDay);
+        repository.createPartition(retainedFrom);
+        LocalDateTime retainedTime = retainedFrom.atTime(8, 15);
+        postHits(List.of(
+                hit(uri, "10.4.0.1", expiredDay.atTime(10, 0)),
+                hit(uri, "10.4.0.2", expiredDefaultDay.atTime(10, 0)),
+                hit(uri, "10.4.0.3", retainedFrom.minusDays(1).atTime(23, 59, 59)),
+                hit(uri, "10.4.0.4", retainedTime),
+                hit(uri, "10.4.0.5", retainedTime)));
+        uniqueVisitorSketches.flush();
+        assertThat(countAggregates("hits_hll", retainedFrom)).isEqualTo(3);
+
+        hitPartitionService.maintainPartitions();
+
+        assertThat(repository.findPartitionDays()).doesNotContain(expiredDay).contains(retainedFrom);
+        assertThat(jdbcTemplate.queryForList("SELECT ip FROM hits WHERE uri = ?", String.class, uri))
+                .containsExactlyInAnyOrder("10.4.0.4", "10.4.0.5");
+        assertThat(countAggregates("hits_minute", retainedFrom)).isZero();
+        assertThat(countAggregates("hits_hour", retainedFrom)).isZero();
+        assertThat(countAggregates("hits_hll", retainedFrom)).isZero();
+        assertThat(sumRollup("hits_minute")).isEqualTo(2);
+        assertThat(sumRollup("hits_hour")).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM hits_hll WHERE uri = ?", Integer.class, uri))
+                .isEqualTo(1);
+    }
+
+    private int countIn(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE uri = ?", Integer.class, uri);
+    }
+
+    private long sumRollup(String table) {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(SUM(hits), 0) FROM " + table + " WHERE uri = ?",
+                Long.class, uri);
+    }
+
+    private int countAggregates(String table, LocalDate before) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table +
+                " WHERE uri = ? AND bucket < CAST(? AS timestamp)", Integer.class, uri, before.toString());
+    }
+
+    private static String partitionName(LocalDate day) {
+        return "hits_p" + day.toString().replace("-", "");
+    }
+}
@@ -0,0 +1,77 @@
+package ru.practicum.statsserver.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.statsdto.Stat;
+import ru.practicum.statsserver.StatsIntegrationTest;
+import ru.practicum.statsserver.mapper.HitMapper;
+import ru.practicum.statsserver.model.Hit;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The in-memory sketches and trending uris must only see hits whose insert has been committed.
+ */
+class StatsServiceImplTest extends StatsIntegrationTest {
+    @Autowired
+    StatsService statsService;
+    @Autowired
+    UniqueVisitorSketches uniqueVisitorSketches;
+    @Autowired
+    TrendingUris trendingUris;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    String uri;
+    List<Hit> hits;
+
+    @BeforeEach
+    void createHits() {
+        uri = "/events/" + UUID.randomUUID();
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        hits = List.of(HitMapper.toHit(hit(uri, "10.2.0.1", now)), HitMapper.toHit(hit(uri, "10.2.0.2", now)));
+    }
+
+    @Test
+    void rolledBackHitsAreNotCounted() {
+        transactionTemplate.executeWithoutResult(status -> {
+            statsService.addAll(hits);
+            status.setRollbackOnly();
+        });
+        uniqueVisitorSketches.flush();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM hits WHERE uri = ?", Integer.class, uri))
+                .isZero();
+        assertThat(uniqueHits()).isZero();
+        assertThat(topUris()).doesNotContain(uri);
+    }
+
+    @Test
+    void committedHitsAreCounted() {
+        statsService.addAll(hits);
+
+        assertThat(uniqueHits()).isEqualTo(2);
+        assertThat(topUris()).contains(uri);
+    }
+
+    private int uniqueHits() {
+        LocalDateTime now = LocalDateTime.now();
+
+        return uniqueVisitorSketches.countUniqueByUri(now.minusHours(2), now.plusHours(1), List.of(uri))
+                .getOrDefault(uri, 0);
+    }
+
+    private List<String> topUris() {
+        return trendingUris.top(5, 10000).stream()
+                .map(Stat::getUri)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,135 @@
+package ru.practicum.statsserver.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.statsdto.Stat;
+import ru.practicum.statsserver.model.Hit;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * While no minute of a stripe holds more uris than the capacity, the Space-Saving summaries are exact,
+ * so the top of a window must equal the top of the exact counts.
+ */
+class TrendingUrisTest {
+    static final String APP = "ewm-main-service";
+    static final int STRIPES = 4;
+    static final int CAPACITY = 50;
+    static final int MAX_WINDOW_MINUTES = 10;
+    static final int URIS = 40;
+
+    final MutableClock clock = new MutableClock(Instant.parse("2026-03-01T10:00:30Z"));
+    final List<Hit> hits = new ArrayList<>();
+    TrendingUris trendingUris;
+
+    @BeforeEach
+    void setUp() {
+        trendingUris = new TrendingUris(STRIPES, CAPACITY, MAX_WINDOW_MINUTES, clock);
+    }
+
+    @Test
+    void topMatchesExactCountsWithinCapacity() {
+        Random random = new Random(11);
+        for (int minute = 0; minute < 15; minute++) {
+            for (int i = 0; i < 300; i++) {
+                int uri = (int) Math.abs(random.nextGaussian() * URIS / 3) % URIS;
+                add("/events/" + uri, now().minusSeconds(random.nextInt(30)));
+            }
+            for (int window : List.of(1, 3, MAX_WINDOW_MINUTES)) {
+                Map<String, Integer> exact = exactCounts(window);
+                List<Stat> top = trendingUris.top(window, 5);
+
+                assertThat(top).extracting(Stat::getHits)
+                        .as("top 5 of %s minutes after minute %s", window, minute)
+                        .containsExactlyElementsOf(exact.values().stream()
+                                .sorted(Comparator.reverseOrder())
+                                .limit(5)
+                                .collect(Collectors.toList()));
+                assertThat(top).allSatisfy(stat -> assertThat(stat.getHits()).isEqualTo(exact.get(stat.getUri())));
+            }
+            clock.advance(Duration.ofMinutes(1));
+        }
+    }
+
+    @Test
+    void lateHitForClosedMinuteIsCounted() {
+        add("/events/1", now());
+        add("/events/1", now());
+        add("/events/2", now());
+        LocalDateTime closedMinute = now();
+        clock.advance(Duration.ofMinutes(2));
+        assertThat(counts(trendingUris.top(5, 10))).isEqualTo(Map.of("/events/1", 2, "/events/2", 1));
+
+        add("/events/2", closedMinute);
+        add("/events/2", closedMinute);
+        add("/events/3", now().minusMinutes(MAX_WINDOW_MINUTES));
+
+        assertThat(counts(trendingUris.top(5, 10))).isEqualTo(Map.of("/events/1", 2, "/events/2", 3));
+    }
+
+    private void add(String uri, LocalDateTime timestamp) {
+        Hit hit = Hit.builder().app(APP).uri(uri).ip("10.5.0.1").timestamp(timestamp).build();
+        hits.add(hit);
+        trendingUris.add(hit);
+    }
+
+    private LocalDateTime now() {
+        return LocalDateTime.now(clock);
+    }
+
+    private Map<String, Integer> exactCounts(int windowMinutes) {
+        LocalDateTime from = now().withSecond(0).minusMinutes(windowMinutes - 1);
+        Map<String, Integer> counts = new HashMap<>();
+        hits.stream()
+                .filter(hit -> !hit.getTimestamp().isBefore(from))
+                .forEach(hit -> counts.merge(hit.getUri(), 1, Integer::sum));
+
+        return counts;
+    }
+
+    private static Map<String, Integer> counts(List<Stat> top) {
+        return top.stream()
+                .collect(Collectors.toMap(Stat::getUri, Stat::getHits));
+    }
+
+    private static class MutableClock extends Clock {
+        Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package ru.practicum.statsserver.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import ru.practicum.statsdto.HitDto;
+import ru.practicum.statsdto.Stat;
+import ru.practicum.statsserver.StatsIntegrationTest;
+import ru.practicum.statsserver.util.HyperLogLog;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Approximate unique counts merge hourly sketches for the whole hours of the range and add the distinct ips
+ * of the partial hours at both edges from raw hits; they must stay close to the exact count.
+ */
+class UniqueVisitorSketchesTest extends StatsIntegrationTest {
+    static final LocalDate DAY = LocalDate.now().minusDays(3);
+    static final LocalDateTime FROM = DAY.atTime(9, 40);
+    static final int HITS = 20_000;
+    static final int IPS = 8_000;
+
+    @Autowired
+    UniqueVisitorSketches uniqueVisitorSketches;
+
+    String uri;
+
+    @BeforeEach
+    void postHits() {
+        uri = "/events/" + UUID.randomUUID();
+        Random random = new Random(7);
+        List<HitDto> hits = new ArrayList<>();
+        for (int i = 0; i < HITS; i++) {
+            int ip = random.nextInt(IPS);
+            hits.add(hit(uri, "10.1." + (ip >> 8) + "." + (ip & 0xff),
+                    FROM.plusSeconds(random.nextInt(3 * 60 * 60 + 40 * 60))));
+        }
+        postHits(hits);
+    }
+
+    @Test
+    void partialHoursStayCloseToExactCount() {
+        assertCloseToExactCount(DAY.atTime(10, 23, 17), DAY.atTime(12, 37, 45));
+        assertCloseToExactCount(DAY.atTime(10, 5), DAY.atTime(10, 50));
+        assertCloseToExactCount(DAY.atTime(10, 59, 30), DAY.atTime(12, 0, 30));
+        assertCloseToExactCount(DAY.atTime(10, 0), DAY.atTime(13, 0));
+    }
+
+    @Test
+    void flushedSketchesStayCloseToExactCount() {
+        uniqueVisitorSketches.flush();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM hits_hll WHERE uri = ?", Integer.class, uri))
+                .isEqualTo(5);
+        assertCloseToExactCount(DAY.atTime(10, 23, 17), DAY.atTime(12, 37, 45));
+        assertCloseToExactCount(DAY.atTime(9, 40), DAY.atTime(13, 19, 59));
+    }
+
+    private void assertCloseToExactCount(LocalDateTime start, LocalDateTime end) {
+        ResponseEntity<Stat[]> response = rest.getForEntity("/stats?start={start}&end={end}&uris={uri}" +
+                "&unique=true&approximate=true", Stat[].class, format(start), format(end), uri);
+        long exact = countDistinctIps(uri, start, end);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).hasSize(1);
+        assertThat((double) response.getBody()[0].getHits())
+                .as("unique visitors from %s to %s", start, end)
+                .isCloseTo(exact, within(3 * HyperLogLog.RELATIVE_STANDARD_ERROR * exact));
+    }
+}
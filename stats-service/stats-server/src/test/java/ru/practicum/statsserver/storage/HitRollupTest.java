@@ -0,0 +1,96 @@
+package ru.practicum.statsserver.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import ru.practicum.statsdto.HitDto;
+import ru.practicum.statsdto.Stat;
+import ru.practicum.statsserver.StatsIntegrationTest;
+import ru.practicum.statsserver.service.StatsService;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Non-unique counts are summed from hour and minute rollups plus raw hits at the edges of the range;
+ * they must equal the exact count over hits for any range.
+ */
+class HitRollupTest extends StatsIntegrationTest {
+    static final LocalDate DAY = LocalDate.now().minusDays(2);
+    static final LocalDateTime FROM = DAY.atTime(9, 50);
+    static final int HITS = 3000;
+
+    @Autowired
+    StatsService statsService;
+
+    String uri;
+    String otherUri;
+
+    @BeforeEach
+    void postHits() {
+        uri = "/events/" + UUID.randomUUID();
+        otherUri = "/events/" + UUID.randomUUID();
+        Random random = new Random(42);
+        List<HitDto> hits = new ArrayList<>();
+        for (int i = 0; i < HITS; i++) {
+            LocalDateTime timestamp = FROM.plusSeconds(random.nextInt(3 * 60 * 60 + 20 * 60));
+            hits.add(hit(i % 5 == 0 ? otherUri : uri, "10.0.0." + random.nextInt(200), timestamp));
+        }
+        for (LocalTime edge : List.of(LocalTime.of(10, 17, 23), LocalTime.of(12, 41, 9), LocalTime.of(11, 0),
+                LocalTime.of(12, 0), LocalTime.of(10, 59, 59))) {
+            hits.add(hit(uri, "10.0.1.1", DAY.atTime(edge)));
+        }
+        postHits(hits);
+    }
+
+    @Test
+    void rangesWithPartialEdgesMatchExactCount() {
+        assertMatchesExactCount(DAY.atTime(10, 17, 23), DAY.atTime(12, 41, 9));
+        assertMatchesExactCount(DAY.atTime(10, 17, 23), DAY.atTime(10, 17, 50));
+        assertMatchesExactCount(DAY.atTime(10, 17, 23), DAY.atTime(10, 48, 5));
+        assertMatchesExactCount(DAY.atTime(10, 59, 30), DAY.atTime(11, 0, 30));
+        assertMatchesExactCount(DAY.atTime(10, 59, 59), DAY.atTime(11, 0));
+        assertMatchesExactCount(DAY.atTime(10, 0), DAY.atTime(12, 0));
+        assertMatchesExactCount(DAY.atTime(9, 59, 59), DAY.atTime(13, 0, 1));
+        assertMatchesExactCount(DAY.atTime(11, 0), DAY.atTime(11, 0));
+    }
+
+    @Test
+    void batchInsertIsRolledUpOnce() {
+        LocalDateTime start = FROM.truncatedTo(ChronoUnit.HOURS);
+        long exact = countHits(uri, start, FROM.plusHours(4));
+
+        assertThat(sumRollup("hits_minute")).isEqualTo(exact);
+        assertThat(sumRollup("hits_hour")).isEqualTo(exact);
+
+        postHits(List.of(hit(uri, "10.0.2.1", DAY.atTime(10, 17, 30)), hit(uri, "10.0.2.2", DAY.atTime(10, 17, 31)),
+                hit(uri, "10.0.2.3", DAY.atTime(11, 45))));
+
+        assertThat(sumRollup("hits_minute")).isEqualTo(exact + 3);
+        assertThat(sumRollup("hits_hour")).isEqualTo(exact + 3);
+        assertThat(jdbcTemplate.queryForObject("SELECT hits FROM hits_minute WHERE uri = ? AND bucket = ?",
+                Long.class, uri, DAY.atTime(10, 17)))
+                .isEqualTo(countHits(uri, DAY.atTime(10, 17), DAY.atTime(10, 17, 59)));
+    }
+
+    private void assertMatchesExactCount(LocalDateTime start, LocalDateTime end) {
+        List<Stat> stats = statsService.get(format(start), format(end), List.of(uri), false, false);
+
+        assertThat(stats.stream().mapToLong(Stat::getHits).sum())
+                .as("hits from %s to %s", start, end)
+                .isEqualTo(countHits(uri, start, end));
+    }
+
+    private long sumRollup(String table) {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(SUM(hits), 0) FROM " + table + " WHERE uri = ?",
+                Long.class, uri);
+    }
+}
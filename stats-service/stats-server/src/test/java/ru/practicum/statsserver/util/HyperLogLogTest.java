@@ -0,0 +1,94 @@
+package ru.practicum.statsserver.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class HyperLogLogTest {
+
+    @ParameterizedTest
+    @ValueSource(ints = {1_000, 10_000, 50_000, 200_000})
+    void estimateIsWithinThreeStandardErrors(int distinct) {
+        HyperLogLog sketch = sketchOf(0, distinct);
+
+        assertThat((double) sketch.estimate())
+                .isCloseTo(distinct, within(3 * HyperLogLog.RELATIVE_STANDARD_ERROR * distinct));
+    }
+
+    @Test
+    void smallCardinalitiesAreNearlyExact() {
+        assertThat(new HyperLogLog().estimate()).isZero();
+        assertThat(sketchOf(0, 1).estimate()).isEqualTo(1);
+        assertThat(sketchOf(0, 100).estimate()).isBetween(98L, 102L);
+    }
+
+    @Test
+    void repeatedValuesAreCountedOnce() {
+        HyperLogLog sketch = sketchOf(0, 5_000);
+        long estimate = sketch.estimate();
+
+        for (int i = 0; i < 5_000; i++) {
+            sketch.add(ip(i));
+        }
+
+        assertThat(sketch.estimate()).isEqualTo(estimate);
+    }
+
+    @Test
+    void mergeEqualsSketchOfUnion() {
+        HyperLogLog first = sketchOf(0, 30_000);
+        HyperLogLog second = sketchOf(20_000, 50_000);
+
+        first.merge(second);
+
+        assertThat(first.toBytes()).isEqualTo(sketchOf(0, 50_000).toBytes());
+        assertThat((double) first.estimate())
+                .isCloseTo(50_000, within(3 * HyperLogLog.RELATIVE_STANDARD_ERROR * 50_000));
+    }
+
+    @Test
+    void mergeIsIdempotent() {
+        HyperLogLog sketch = sketchOf(0, 10_000);
+        byte[] registers = sketch.toBytes();
+
+        sketch.merge(sketchOf(0, 10_000));
+        sketch.merge(sketchOf(0, 5_000));
+
+        assertThat(sketch.toBytes()).isEqualTo(registers);
+    }
+
+    @Test
+    void bytesRoundTrip() {
+        HyperLogLog sketch = sketchOf(0, 10_000);
+
+        HyperLogLog restored = HyperLogLog.fromBytes(sketch.toBytes());
+
+        assertThat(restored.toBytes()).isEqualTo(sketch.toBytes());
+        assertThat(restored.estimate()).isEqualTo(sketch.estimate());
+        restored.add("10.255.255.255");
+        assertThat(HyperLogLog.fromBytes(sketch.toBytes()).toBytes()).isEqualTo(sketch.toBytes());
+    }
+
+    @Test
+    void wrongNumberOfRegistersIsRejected() {
+        assertThatThrownBy(() -> HyperLogLog.fromBytes(new byte[100]))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static HyperLogLog sketchOf(int from, int to) {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = from; i < to; i++) {
+            sketch.add(ip(i));
+        }
+
+        return sketch;
+    }
+
+    private static String ip(int i) {
+        return "10." + ((i >> 16) & 0xff) + "." + ((i >> 8) & 0xff) + "." + (i & 0xff);
+    }
+}